@@ -1,6 +1,12 @@
 package com.eazybytes.accounts;
 
+import com.eazybytes.accounts.config.BulkOnboardingProperties;
+import com.eazybytes.accounts.config.CustomerDetailsProperties;
+import com.eazybytes.accounts.config.LoadBalancingProperties;
+import com.eazybytes.accounts.config.OutboxProperties;
+import com.eazybytes.accounts.config.ReadModelProperties;
 import com.eazybytes.accounts.dto.AccountsContactInfoDto;
+import com.eazybytes.accounts.loadbalancer.LatencyAwareLoadBalancerConfiguration;
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Contact;
@@ -9,13 +15,21 @@ import io.swagger.v3.oas.annotations.info.License;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaAuditing(auditorAwareRef = "auditAwareImpl")
-@EnableConfigurationProperties(AccountsContactInfoDto.class)
+@EnableConfigurationProperties({AccountsContactInfoDto.class, CustomerDetailsProperties.class,
+		BulkOnboardingProperties.class, OutboxProperties.class, LoadBalancingProperties.class,
+		ReadModelProperties.class})
 @EnableFeignClients
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+@EnableCaching
+@EnableScheduling
 @OpenAPIDefinition(
 		info=@Info(
 				title="Accounts microservice REST API Documentation",
@@ -0,0 +1,50 @@
+package com.eazybytes.accounts.config;
+
+import com.eazybytes.accounts.constants.AccountsConstants;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Executor used to fan out the loans and cards calls of a customer details request.
+     * Every task gets its own virtual thread, so a blocking Feign call never holds a platform thread.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService customerDetailsExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Gives the loans and cards circuit breakers their own deadline and runs their time limiters on the
+     * virtual-thread executor. Breaker thresholds come from the resilience4j {@code default} config.
+     */
+    @Bean
+    public Customizer<Resilience4JCircuitBreakerFactory> customerDetailsCircuitBreakers(
+            ExecutorService customerDetailsExecutor, CustomerDetailsProperties customerDetailsProperties) {
+        return factory -> {
+            factory.configureExecutorService(customerDetailsExecutor);
+            factory.configure(builder -> withTimeout(builder, factory, customerDetailsProperties.loansTimeout()),
+                    AccountsConstants.LOANS_CIRCUIT_BREAKER);
+            factory.configure(builder -> withTimeout(builder, factory, customerDetailsProperties.cardsTimeout()),
+                    AccountsConstants.CARDS_CIRCUIT_BREAKER);
+        };
+    }
+
+    private static Resilience4JConfigBuilder withTimeout(Resilience4JConfigBuilder builder,
+                                                         Resilience4JCircuitBreakerFactory factory, Duration timeout) {
+        return builder
+                .circuitBreakerConfig(factory.getCircuitBreakerRegistry().getDefaultConfig())
+                .timeLimiterConfig(TimeLimiterConfig.custom().timeoutDuration(timeout).cancelRunningFuture(true).build());
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.eazybytes.accounts.config;
+
+import com.eazybytes.accounts.dto.CardsDto;
+import com.eazybytes.accounts.dto.LoansDto;
+import com.eazybytes.accounts.service.client.BatchLoader;
+import com.eazybytes.accounts.service.client.CardsFeignClient;
+import com.eazybytes.accounts.service.client.LoansFeignClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+@Configuration
+public class BatchLoaderConfig {
+
+    /**
+     * Collects the loans lookups of concurrent customer details requests into {@code POST api/fetchBatch} calls.
+     */
+    @Bean
+    public BatchLoader<String, LoansDto> loansBatchLoader(LoansFeignClient loansFeignClient,
+                                                          ExecutorService customerDetailsExecutor,
+                                                          CustomerDetailsProperties customerDetailsProperties) {
+        return new BatchLoader<>("loans", (mobileNumbers, correlationId) -> byMobileNumber(
+                loansFeignClient.fetchLoansDetailsBatch(correlationId, mobileNumbers).getBody(), LoansDto::getMobileNumber),
+                customerDetailsProperties.batchWindow(), customerDetailsProperties.maxBatchSize(), customerDetailsExecutor);
+    }
+
+    /**
+     * Collects the cards lookups of concurrent customer details requests into {@code POST api/fetchBatch} calls.
+     */
+    @Bean
+    public BatchLoader<String, CardsDto> cardsBatchLoader(CardsFeignClient cardsFeignClient,
+                                                          ExecutorService customerDetailsExecutor,
+                                                          CustomerDetailsProperties customerDetailsProperties) {
+        return new BatchLoader<>("cards", (mobileNumbers, correlationId) -> byMobileNumber(
+                cardsFeignClient.fetchCardDetailsBatch(correlationId, mobileNumbers).getBody(), CardsDto::getMobileNumber),
+                customerDetailsProperties.batchWindow(), customerDetailsProperties.maxBatchSize(), customerDetailsExecutor);
+    }
+
+    private static <T> Map<String, T> byMobileNumber(List<T> dtos, Function<T, String> mobileNumber) {
+        Map<String, T> dtosByMobileNumber = new HashMap<>();
+        if (dtos != null) {
+            for (T dto : dtos) {
+                dtosByMobileNumber.put(mobileNumber.apply(dto), dto);
+            }
+        }
+        return dtosByMobileNumber;
+    }
+}
@@ -0,0 +1,15 @@
+package com.eazybytes.accounts.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the bulk customer onboarding API.
+ *
+ * @param chunkSize - number of customers checked, inserted and published together
+ */
+@ConfigurationProperties(prefix = "bulk-onboarding")
+public record BulkOnboardingProperties(
+        @DefaultValue("500") int chunkSize
+) {
+}
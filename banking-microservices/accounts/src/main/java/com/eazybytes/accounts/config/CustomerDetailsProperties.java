@@ -0,0 +1,26 @@
+package com.eazybytes.accounts.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Deadlines and degradation settings applied to the downstream legs of the customer details aggregate.
+ *
+ * @param loansTimeout - maximum time to wait for the loans microservice
+ * @param cardsTimeout - maximum time to wait for the cards microservice
+ * @param partialResponse - return the aggregate without a failed section instead of failing the request
+ * @param batchWindow - time the loans and cards lookups of concurrent requests are collected into one batch call,
+ *                    zero to call the microservices once per request
+ * @param maxBatchSize - number of lookups after which a batch call is sent without waiting for the window
+ */
+@ConfigurationProperties(prefix = "customer-details")
+public record CustomerDetailsProperties(
+        @DefaultValue("2s") Duration loansTimeout,
+        @DefaultValue("2s") Duration cardsTimeout,
+        @DefaultValue("true") boolean partialResponse,
+        @DefaultValue("2ms") Duration batchWindow,
+        @DefaultValue("100") int maxBatchSize
+) {
+}
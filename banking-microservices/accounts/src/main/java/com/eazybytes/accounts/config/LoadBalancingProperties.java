@@ -0,0 +1,21 @@
+package com.eazybytes.accounts.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the latency aware load balancer used by the Feign clients.
+ *
+ * @param decayTime - time after which an observed latency has lost about two thirds of its weight
+ * @param defaultLatency - latency assumed for an instance before its first response
+ * @param failurePenalty - minimum latency recorded for a failed request
+ */
+@ConfigurationProperties(prefix = "load-balancing")
+public record LoadBalancingProperties(
+        @DefaultValue("10s") Duration decayTime,
+        @DefaultValue("100ms") Duration defaultLatency,
+        @DefaultValue("1s") Duration failurePenalty
+) {
+}
@@ -0,0 +1,21 @@
+package com.eazybytes.accounts.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the relay that drains the outbox table to the stream bindings.
+ *
+ * @param batchSize - maximum number of events locked and published per relay transaction
+ * @param publisherConfirms - wait for a broker confirm before deleting an event, disable for binders without confirms
+ * @param confirmTimeout - maximum time to wait for the confirms of a batch
+ */
+@ConfigurationProperties(prefix = "outbox")
+public record OutboxProperties(
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("true") boolean publisherConfirms,
+        @DefaultValue("5s") Duration confirmTimeout
+) {
+}
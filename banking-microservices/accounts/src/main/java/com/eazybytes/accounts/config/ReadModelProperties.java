@@ -0,0 +1,19 @@
+package com.eazybytes.accounts.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Local read model of the loans and cards, fed by their change events.
+ *
+ * @param enabled - serve the customer details from the read model when it is fresh
+ * @param maxAge - entries not refreshed for longer are stale, and read again from the microservice
+ */
+@ConfigurationProperties(prefix = "read-model")
+public record ReadModelProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("15m") Duration maxAge
+) {
+}
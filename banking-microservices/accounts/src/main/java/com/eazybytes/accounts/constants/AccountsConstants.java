@@ -12,10 +12,22 @@ public final class AccountsConstants {
     public static final String  MESSAGE_201 = "Account created successfully";
     public static final String  STATUS_200 = "200";
     public static final String  MESSAGE_200 = "Request processed successfully";
+    public static final String  STATUS_400 = "400";
+    public static final String  MESSAGE_400_DUPLICATE = "Customer already exists with the given mobile number";
     public static final String  STATUS_417 = "417";
     public static final String  MESSAGE_417_UPDATE= "Update operation failed. Please try again or contact Dev team";
     public static final String  MESSAGE_417_DELETE= "Delete operation failed. Please try again or contact Dev team";
     public static final String  STATUS_500 = "500";
     public static final String  MESSAGE_500 = "An error occurred. Please try again or contact Dev team";
+    public static final String  CUSTOMER_CACHE = "customers";
+    public static final String  LOANS_CIRCUIT_BREAKER = "loans";
+    public static final String  CARDS_CIRCUIT_BREAKER = "cards";
+    public static final String  SECTION_AVAILABLE = "AVAILABLE";
+    public static final String  SECTION_NOT_FOUND = "NOT_FOUND";
+    public static final String  SECTION_UNAVAILABLE = "UNAVAILABLE";
+    public static final String  EVENT_ID_HEADER = "eventId";
+    public static final String  BATCHED_HEADERS = "amqp_batchedHeaders";
+    public static final String  LOANS_PRODUCT = "loans";
+    public static final String  CARDS_PRODUCT = "cards";
 
 }
\ No newline at end of file
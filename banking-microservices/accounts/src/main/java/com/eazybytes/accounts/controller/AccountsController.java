@@ -2,10 +2,15 @@ package com.eazybytes.accounts.controller;
 
 import com.eazybytes.accounts.constants.AccountsConstants;
 import com.eazybytes.accounts.dto.AccountsContactInfoDto;
+import com.eazybytes.accounts.dto.BulkCreateResponseDto;
 import com.eazybytes.accounts.dto.CustomerDto;
 import com.eazybytes.accounts.dto.ErrorResponseDto;
 import com.eazybytes.accounts.dto.ResponseDto;
 import com.eazybytes.accounts.service.IAccountsService;
+import com.eazybytes.accounts.service.IBulkAccountsService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -22,6 +27,11 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 
 
 
@@ -36,8 +46,10 @@ import org.springframework.web.bind.annotation.*;
 public class AccountsController {
 
     private IAccountsService accountsService;
-    public AccountsController(IAccountsService accountsService) {
+    private IBulkAccountsService bulkAccountsService;
+    public AccountsController(IAccountsService accountsService, IBulkAccountsService bulkAccountsService) {
         this.accountsService = accountsService;
+        this.bulkAccountsService = bulkAccountsService;
     }
     @Value("${build.version}")
     private String buildVersion;
@@ -46,6 +58,8 @@ public class AccountsController {
     private Environment env;
     @Autowired
     private AccountsContactInfoDto accountsContactInfoDto;
+    @Autowired
+    private ObjectMapper objectMapper;
 
 
     @Operation(
@@ -77,6 +91,50 @@ public class AccountsController {
         }
     }
 
+    @Operation(
+            summary = "Bulk Create Accounts REST API",
+            description = "REST API to onboard many Customers & Accounts from a newline delimited JSON stream. " +
+                    "One result line is streamed back per input customer, in input order"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = BulkCreateResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    }
+    )
+    @PostMapping(path = "/createBatch", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> createAccounts(InputStream customers) {
+        StreamingResponseBody body = out -> {
+            try (MappingIterator<CustomerDto> iterator = objectMapper.readerFor(CustomerDto.class).readValues(customers);
+                 SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                bulkAccountsService.createAccounts(iterator, result -> {
+                    try {
+                        writer.write(result);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @Operation(
             summary = "Fetch Account Details REST API",
             description = "REST API to fetch Customer &  Account details based on a mobile number"
@@ -0,0 +1,30 @@
+package com.eazybytes.accounts.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Schema(
+        name = "BulkCreateResponse",
+        description = "Schema to hold the outcome of one customer of a bulk create request"
+)
+public class BulkCreateResponseDto {
+
+    @Schema(
+            description = "Mobile Number of the customer", example = "1234567890"
+    )
+    private String mobileNumber;
+
+    @Schema(
+            description = "Status code of the customer creation"
+    )
+    private String statusCode;
+
+    @Schema(
+            description = "Status message of the customer creation"
+    )
+    private String statusMessage;
+
+}
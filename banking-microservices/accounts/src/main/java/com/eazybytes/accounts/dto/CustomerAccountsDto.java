@@ -0,0 +1,16 @@
+package com.eazybytes.accounts.dto;
+
+/**
+ * Read-only projection of a customer joined with its account, loaded in a single query.
+ */
+public record CustomerAccountsDto(
+        Long customerId,
+        String name,
+        String email,
+        String mobileNumber,
+        Long accountNumber,
+        String accountType,
+        String branchAddress,
+        Boolean communicationSw
+) {
+}
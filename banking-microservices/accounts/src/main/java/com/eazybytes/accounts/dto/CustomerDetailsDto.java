@@ -50,5 +50,15 @@ public class CustomerDetailsDto {
     )
     private CardsDto cardsDto;
 
+    @Schema(
+            description = "Status of the loans section (AVAILABLE, NOT_FOUND or UNAVAILABLE)", example = "AVAILABLE"
+    )
+    private String loansStatus;
+
+    @Schema(
+            description = "Status of the cards section (AVAILABLE, NOT_FOUND or UNAVAILABLE)", example = "AVAILABLE"
+    )
+    private String cardsStatus;
+
 
 }
@@ -0,0 +1,17 @@
+package com.eazybytes.accounts.dto;
+
+import java.time.Instant;
+
+/**
+ * Change of the loan of a mobile number, published by the loans microservice.
+ *
+ * @param mobileNumber - Mobile Number of the Customer
+ * @param loansDto - loan details after the change, null when the loan was deleted
+ * @param changedAt - time of the change, later changes of the same mobile number win
+ */
+public record LoansChangeMsgDto(
+        String mobileNumber,
+        LoansDto loansDto,
+        Instant changedAt
+) {
+}
@@ -0,0 +1,28 @@
+package com.eazybytes.accounts.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_event")
+@Getter @Setter @ToString @AllArgsConstructor @NoArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "binding_name")
+    private String bindingName;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    private String payload;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+}
@@ -1,10 +1,18 @@
 package com.eazybytes.accounts.function;
+import com.eazybytes.accounts.constants.AccountsConstants;
+import com.eazybytes.accounts.dto.CardsChangeMsgDto;
+import com.eazybytes.accounts.dto.LoansChangeMsgDto;
+import com.eazybytes.accounts.readmodel.CustomerProductsReadModel;
 import com.eazybytes.accounts.service.IAccountsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 @Configuration
@@ -13,11 +21,59 @@ public class AccountsFunctions {
     private static final Logger log = LoggerFactory.getLogger(AccountsFunctions.class);
 
     @Bean
-    public Consumer<Long> updateCommunication(IAccountsService accountsService) {
-        return accountNumber -> {
+    public Consumer<Message<Long>> updateCommunication(IAccountsService accountsService) {
+        return message -> {
+            Long accountNumber = message.getPayload();
             log.info("Updating Communication status for the account number : " + accountNumber.toString());
-            accountsService.updateCommunicationStatus(accountNumber);
+            accountsService.updateCommunicationStatus(accountNumber,
+                    message.getHeaders().get(AccountsConstants.EVENT_ID_HEADER, String.class));
         };
     }
 
-}
\ No newline at end of file
+    /**
+     * Batch variant of {@link #updateCommunication(IAccountsService)}: the binder hands over up to
+     * {@code batch-size} account numbers at once, with the headers of each message in the batched headers,
+     * and the batch is applied with a single UPDATE after skipping the event ids already processed.
+     */
+    @Bean
+    public Consumer<Message<List<Long>>> updateCommunicationBatch(IAccountsService accountsService) {
+        return message -> {
+            List<Long> accountNumbers = message.getPayload();
+            int updated = accountsService.updateCommunicationStatus(accountNumbers, eventIds(message));
+            log.info("Updated Communication status for {} of {} account numbers", updated, accountNumbers.size());
+        };
+    }
+
+    private static List<String> eventIds(Message<List<Long>> message) {
+        List<?> batchedHeaders = message.getHeaders().get(AccountsConstants.BATCHED_HEADERS, List.class);
+        List<String> eventIds = new ArrayList<>(message.getPayload().size());
+        for (int i = 0; i < message.getPayload().size(); i++) {
+            Object eventId = batchedHeaders != null && i < batchedHeaders.size()
+                    && batchedHeaders.get(i) instanceof Map<?, ?> headers
+                    ? headers.get(AccountsConstants.EVENT_ID_HEADER) : null;
+            eventIds.add(eventId != null ? eventId.toString() : null);
+        }
+        return eventIds;
+    }
+
+    /**
+     * Applies the loan changes published by the loans microservice to the read model. A change older than the
+     * stored one is ignored, which also makes redeliveries harmless.
+     */
+    @Bean
+    public Consumer<LoansChangeMsgDto> loansChanged(CustomerProductsReadModel customerProductsReadModel) {
+        return change -> customerProductsReadModel.apply(AccountsConstants.LOANS_PRODUCT, change.mobileNumber(),
+                change.loansDto(), change.changedAt());
+    }
+
+    /**
+     * Applies the card changes published by the cards microservice to the read model, like
+     * {@link #loansChanged(CustomerProductsReadModel)}.
+     */
+    @Bean
+    public Consumer<CardsChangeMsgDto> cardsChanged(CustomerProductsReadModel customerProductsReadModel) {
+        return change -> customerProductsReadModel.apply(AccountsConstants.CARDS_PRODUCT, change.mobileNumber(),
+                change.cardsDto(), change.changedAt());
+    }
+
+}
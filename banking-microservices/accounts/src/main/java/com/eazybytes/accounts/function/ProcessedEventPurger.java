@@ -0,0 +1,36 @@
+package com.eazybytes.accounts.function;
+
+import com.eazybytes.accounts.repository.ProcessedEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps the processed event table bounded. Redeliveries happen within minutes, so ids only
+ * need to be remembered for the configured retention.
+ */
+@Component
+public class ProcessedEventPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessedEventPurger.class);
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final Duration retention;
+
+    public ProcessedEventPurger(ProcessedEventRepository processedEventRepository,
+                                @Value("${processed-events.retention:7d}") Duration retention) {
+        this.processedEventRepository = processedEventRepository;
+        this.retention = retention;
+    }
+
+    @Scheduled(cron = "${processed-events.purge-cron:0 0 3 * * *}")
+    public void purge() {
+        int deleted = processedEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+        log.info("Purged {} processed event ids older than {}", deleted, retention);
+    }
+}
@@ -0,0 +1,59 @@
+package com.eazybytes.accounts.idgen;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out identifiers from a block reserved through a {@link BlockAllocator}. Threads only share an
+ * {@link AtomicLong} on the hot path; the lock is taken once per block, when the current one is exhausted.
+ */
+public class BlockSequenceGenerator implements IdGenerator {
+
+    private final BlockAllocator blockAllocator;
+    private final int blockSize;
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private volatile Block block = new Block(0, 0);
+
+    public BlockSequenceGenerator(BlockAllocator blockAllocator, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be positive");
+        }
+        this.blockAllocator = blockAllocator;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            Block current = block;
+            long id = current.next.getAndIncrement();
+            if (id < current.end) {
+                return id;
+            }
+            refill(current);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // another thread may already have replaced the block while this one was waiting
+            if (block == exhausted) {
+                long start = blockAllocator.allocate(blockSize);
+                block = new Block(start, start + blockSize);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.eazybytes.accounts.idgen;
+
+/**
+ * Source of unique numeric identifiers. Implementations must be safe to call from many threads.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    /**
+     * @return an identifier that was never returned before by this generator or any other instance sharing its store
+     */
+    long nextId();
+}
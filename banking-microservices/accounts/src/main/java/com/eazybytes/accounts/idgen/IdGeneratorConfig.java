@@ -0,0 +1,21 @@
+package com.eazybytes.accounts.idgen;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    /**
+     * Account numbers keep their 10 digit format and must fit the INT account_number column.
+     */
+    @Bean
+    public IdGenerator accountNumberGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                              @Value("${id-generator.block-size:100}") int blockSize) {
+        return new BlockSequenceGenerator(new JdbcBlockAllocator(jdbcTemplate, transactionManager,
+                "account_number", 1000000000L, 2147483647L, "SELECT MAX(account_number) FROM accounts"), blockSize);
+    }
+}
@@ -0,0 +1,182 @@
+package com.eazybytes.accounts.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Power of two choices over a peak EWMA of latency: two instances are drawn at random and the request goes
+ * to the one with the lower {@code latency * (in-flight requests + 1)}. A slow response raises the latency of
+ * its instance at once, fast ones lower it exponentially, and the latency of an idle instance decays so a
+ * recovered pod is probed again. New instances start at a default latency instead of zero, so a pod that is
+ * still warming up is not flooded. As a {@link LoadBalancerLifecycle} it learns from the requests sent through
+ * it by the {@code lb://} gateway routes and by the Feign clients, whose blocking load balancer client
+ * delegates to this same reactive load balancer.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyAwareLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final long decayNanos;
+    private final long defaultLatencyNanos;
+    private final long failurePenaltyNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId, Duration decayTime, Duration defaultLatency,
+                                    Duration failurePenalty) {
+        this(serviceInstanceListSupplierProvider, serviceId, decayTime, defaultLatency, failurePenalty, System::nanoTime);
+    }
+
+    LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                             String serviceId, Duration decayTime, Duration defaultLatency, Duration failurePenalty,
+                             LongSupplier nanoClock) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.decayNanos = decayTime.toNanos();
+        this.defaultLatencyNanos = defaultLatency.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        if (stats.size() > 2 * instances.size()) {
+            forgetRemovedInstances(instances);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance firstInstance = instances.get(first);
+        ServiceInstance secondInstance = instances.get(second);
+        long now = nanoClock.getAsLong();
+        return new DefaultResponse(stats(firstInstance).cost(now) <= stats(secondInstance).cost(now)
+                ? firstInstance : secondInstance);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext timedContext) {
+            timedContext.setRequestStartTime(nanoClock.getAsLong());
+        }
+        stats(lbResponse.getServer()).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD || lbResponse == null
+                || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceStats instanceStats = stats(lbResponse.getServer());
+        instanceStats.inFlight.decrementAndGet();
+        if (completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext timedContext
+                && timedContext.getRequestStartTime() != 0) {
+            long now = nanoClock.getAsLong();
+            long latency = now - timedContext.getRequestStartTime();
+            if (completionContext.status() == CompletionContext.Status.FAILED) {
+                latency = Math.max(latency, failurePenaltyNanos);
+            }
+            instanceStats.observe(latency, now);
+        }
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), key -> new InstanceStats(defaultLatencyNanos, nanoClock.getAsLong()));
+    }
+
+    private void forgetRemovedInstances(List<ServiceInstance> instances) {
+        Set<String> keys = new HashSet<>();
+        for (ServiceInstance instance : instances) {
+            keys.add(key(instance));
+        }
+        stats.keySet().retainAll(keys);
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getInstanceId() != null ? instance.getInstanceId() : instance.getHost() + ':' + instance.getPort();
+    }
+
+    /**
+     * Peak EWMA of the latency of one instance and its number of in-flight requests.
+     */
+    private final class InstanceStats {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private long latencyNanos;
+        private long updatedAt;
+
+        private InstanceStats(long latencyNanos, long updatedAt) {
+            this.latencyNanos = latencyNanos;
+            this.updatedAt = updatedAt;
+        }
+
+        private synchronized void observe(long latency, long now) {
+            if (latency > latencyNanos) {
+                latencyNanos = latency;
+            } else {
+                double weight = Math.exp(-(double) (now - updatedAt) / decayNanos);
+                latencyNanos = (long) (latencyNanos * weight + latency * (1 - weight));
+            }
+            updatedAt = now;
+        }
+
+        private double cost(long now) {
+            double decayed;
+            synchronized (this) {
+                decayed = latencyNanos * Math.exp(-(double) Math.max(0, now - updatedAt) / decayNanos);
+            }
+            return decayed * (Math.max(0, inFlight.get()) + 1);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.eazybytes.accounts.loadbalancer;
+
+import com.eazybytes.accounts.config.LoadBalancingProperties;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load balancer configuration of every client, registered with {@code @LoadBalancerClients}. It is
+ * instantiated once per service in that service's own context, so it is deliberately not a {@code @Configuration}
+ * picked up by the component scan.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment environment,
+                                                             LoadBalancerClientFactory loadBalancerClientFactory,
+                                                             LoadBalancingProperties loadBalancingProperties) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId,
+                loadBalancingProperties.decayTime(), loadBalancingProperties.defaultLatency(),
+                loadBalancingProperties.failurePenalty());
+    }
+}
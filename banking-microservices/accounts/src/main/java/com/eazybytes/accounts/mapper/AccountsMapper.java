@@ -1,6 +1,7 @@
 package com.eazybytes.accounts.mapper;
 
 import com.eazybytes.accounts.dto.AccountsDto;
+import com.eazybytes.accounts.dto.CustomerAccountsDto;
 import com.eazybytes.accounts.entity.Accounts;
 
 public class AccountsMapper {
@@ -13,6 +14,14 @@ public class AccountsMapper {
         return accountsDto;
     }
 
+    public static AccountsDto mapToAccountsDto(CustomerAccountsDto customerAccountsDto, AccountsDto accountsDto) {
+        accountsDto.setAccountNumber(customerAccountsDto.accountNumber());
+        accountsDto.setAccountType(customerAccountsDto.accountType());
+        accountsDto.setBranchAddress(customerAccountsDto.branchAddress());
+        accountsDto.setCommunicationSw(customerAccountsDto.communicationSw());
+        return accountsDto;
+    }
+
     public static Accounts mapToAccounts(AccountsDto accountsDto, Accounts accounts) {
         accounts.setAccountNumber(accountsDto.getAccountNumber());
         accounts.setAccountType(accountsDto.getAccountType());
@@ -1,5 +1,7 @@
 package com.eazybytes.accounts.mapper;
 
+import com.eazybytes.accounts.dto.AccountsDto;
+import com.eazybytes.accounts.dto.CustomerAccountsDto;
 import com.eazybytes.accounts.dto.CustomerDetailsDto;
 import com.eazybytes.accounts.dto.CustomerDto;
 import com.eazybytes.accounts.entity.Customer;
@@ -12,6 +14,13 @@ public class CustomerMapper {
         customerDto.setMobileNumber(customer.getMobileNumber());
         return customerDto;
     }
+    public static CustomerDto mapToCustomerDto(CustomerAccountsDto customerAccountsDto, CustomerDto customerDto) {
+        customerDto.setName(customerAccountsDto.name());
+        customerDto.setEmail(customerAccountsDto.email());
+        customerDto.setMobileNumber(customerAccountsDto.mobileNumber());
+        customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(customerAccountsDto, new AccountsDto()));
+        return customerDto;
+    }
     public static CustomerDetailsDto mapToCustomerDetailsDto(Customer customer, CustomerDetailsDto customerDetailsDto) {
         customerDetailsDto.setName(customer.getName());
         customerDetailsDto.setEmail(customer.getEmail());
@@ -19,6 +28,14 @@ public class CustomerMapper {
         return customerDetailsDto;
     }
 
+    public static CustomerDetailsDto mapToCustomerDetailsDto(CustomerDto customerDto, CustomerDetailsDto customerDetailsDto) {
+        customerDetailsDto.setName(customerDto.getName());
+        customerDetailsDto.setEmail(customerDto.getEmail());
+        customerDetailsDto.setMobileNumber(customerDto.getMobileNumber());
+        customerDetailsDto.setAccountsDto(customerDto.getAccountsDto());
+        return customerDetailsDto;
+    }
+
     public static Customer mapToCustomer(CustomerDto customerDto, Customer customer) {
         customer.setName(customerDto.getName());
         customer.setEmail(customerDto.getEmail());
@@ -0,0 +1,10 @@
+package com.eazybytes.accounts.outbox;
+
+/**
+ * An event to publish to a stream binding once the transaction that produced it commits.
+ *
+ * @param bindingName - output binding the event is sent to, for example {@code sendCommunication-out-0}
+ * @param payload - String payloads are sent as plain text, anything else as JSON
+ */
+public record OutboxMessage(String bindingName, Object payload) {
+}
@@ -0,0 +1,115 @@
+package com.eazybytes.accounts.outbox;
+
+import com.eazybytes.accounts.config.OutboxProperties;
+import com.eazybytes.accounts.constants.AccountsConstants;
+import com.eazybytes.accounts.entity.OutboxEvent;
+import com.eazybytes.accounts.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.data.domain.Limit;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the outbox table to the stream bindings. Each round locks a batch of the oldest events, publishes it,
+ * waits for the broker confirms and deletes the confirmed events in the same transaction. Only one batch is
+ * in flight at a time, so a slow broker throttles the relay instead of piling up unconfirmed messages, and
+ * an unconfirmed event stays in the table to be retried: delivery is at least once.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final StreamBridge streamBridge;
+    private final OutboxProperties outboxProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, StreamBridge streamBridge,
+                       OutboxProperties outboxProperties, PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.streamBridge = streamBridge;
+        this.outboxProperties = outboxProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval:500ms}")
+    public void relay() {
+        Boolean drainMore;
+        do {
+            drainMore = transactionTemplate.execute(status -> relayBatch());
+        } while (Boolean.TRUE.equals(drainMore));
+    }
+
+    /**
+     * @return true when the batch was full and fully confirmed, so more events may be waiting
+     */
+    private boolean relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.findByOrderByIdAsc(Limit.of(outboxProperties.batchSize()));
+        if (events.isEmpty()) {
+            return false;
+        }
+        List<Long> published = new ArrayList<>(events.size());
+        List<CorrelationData> confirms = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            CorrelationData correlationData = new CorrelationData(event.getId().toString());
+            if (!streamBridge.send(event.getBindingName(), toMessage(event, correlationData))) {
+                log.warn("Outbox event {} could not be sent to {}", event.getId(), event.getBindingName());
+                break;
+            }
+            published.add(event.getId());
+            confirms.add(correlationData);
+        }
+        List<Long> confirmed = outboxProperties.publisherConfirms() ? awaitConfirms(published, confirms) : published;
+        outboxEventRepository.deleteAllByIdInBatch(confirmed);
+        return confirmed.size() == outboxProperties.batchSize();
+    }
+
+    private Message<byte[]> toMessage(OutboxEvent event, CorrelationData correlationData) {
+        MessageBuilder<byte[]> builder = MessageBuilder.withPayload(event.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setHeader(MessageHeaders.CONTENT_TYPE, event.getContentType())
+                .setHeader(AccountsConstants.EVENT_ID_HEADER, event.getId().toString());
+        if (outboxProperties.publisherConfirms()) {
+            builder.setHeader(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION, correlationData);
+        }
+        return builder.build();
+    }
+
+    private List<Long> awaitConfirms(List<Long> published, List<CorrelationData> confirms) {
+        long deadline = System.nanoTime() + outboxProperties.confirmTimeout().toNanos();
+        List<Long> confirmed = new ArrayList<>(published.size());
+        for (int i = 0; i < confirms.size(); i++) {
+            try {
+                CorrelationData.Confirm confirm = confirms.get(i).getFuture()
+                        .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (confirm.isAck()) {
+                    confirmed.add(published.get(i));
+                } else {
+                    log.warn("Outbox event {} was rejected by the broker : {}", published.get(i), confirm.getReason());
+                }
+            } catch (TimeoutException | ExecutionException ex) {
+                log.warn("Outbox event {} was not confirmed : {}", published.get(i), ex.toString());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return confirmed;
+    }
+}
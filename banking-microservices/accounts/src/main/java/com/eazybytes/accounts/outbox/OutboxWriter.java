@@ -0,0 +1,60 @@
+package com.eazybytes.accounts.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records events in the outbox table inside the caller's transaction, so they are published
+ * by the {@link OutboxRelay} if and only if the business change commits.
+ */
+@Component
+@AllArgsConstructor
+public class OutboxWriter {
+
+    private static final String INSERT_EVENT = "INSERT INTO outbox_event (binding_name, content_type, payload, created_at) "
+            + "VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void append(String bindingName, Object payload) {
+        appendAll(List.of(new OutboxMessage(bindingName, payload)));
+    }
+
+    /**
+     * @param messages - events written with a single JDBC batch
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void appendAll(List<OutboxMessage> messages) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(messages.size());
+        for (OutboxMessage message : messages) {
+            if (message.payload() instanceof String text) {
+                rows.add(new Object[]{message.bindingName(), MimeTypeUtils.TEXT_PLAIN_VALUE, text, now});
+            } else {
+                rows.add(new Object[]{message.bindingName(), MimeTypeUtils.APPLICATION_JSON_VALUE,
+                        toJson(message.payload()), now});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Outbox payload cannot be serialized: " + payload, ex);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.eazybytes.accounts.readmodel;
+
+import com.eazybytes.accounts.config.ReadModelProperties;
+import com.eazybytes.accounts.repository.ProductProjectionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Local copy of the loans and cards of each customer, so the customer details can be served without calling
+ * the loans and cards microservices. It is kept up to date by their change events, and a product read from
+ * their REST API is written back, which fills the entries of products that existed before the events and
+ * repairs the entries whose events were lost. Each entry carries its freshness watermark, the time it was last
+ * received; entries older than the maximum age are stale and read again from the microservice.
+ * Lookups are counted in {@value #METRIC_NAME}, tagged by product and outcome.
+ */
+@Component
+public class CustomerProductsReadModel {
+
+    public static final String METRIC_NAME = "accounts.read.model.lookups";
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerProductsReadModel.class);
+
+    private final ProductProjectionRepository productProjectionRepository;
+    private final ObjectMapper objectMapper;
+    private final ReadModelProperties readModelProperties;
+    private final MeterRegistry meterRegistry;
+
+    public CustomerProductsReadModel(ProductProjectionRepository productProjectionRepository, ObjectMapper objectMapper,
+                                     ReadModelProperties readModelProperties, MeterRegistry meterRegistry) {
+        this.productProjectionRepository = productProjectionRepository;
+        this.objectMapper = objectMapper;
+        this.readModelProperties = readModelProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Applies a change event, unless a later change of the product was already applied.
+     *
+     * @param product - product name
+     * @param mobileNumber - Mobile Number of the Customer
+     * @param value - product after the change, null when it was deleted
+     * @param changedAt - time of the change
+     */
+    public void apply(String product, String mobileNumber, Object value, Instant changedAt) {
+        productProjectionRepository.upsert(product, mobileNumber, toJson(value), changedAt, Instant.now());
+    }
+
+    /**
+     * Writes back a product read from its microservice. Failures are logged and ignored, the entry is then
+     * simply read from the microservice again next time.
+     *
+     * @param product - product name
+     * @param mobileNumber - Mobile Number of the Customer
+     * @param value - product returned by the microservice, null when it has none
+     * @param readStartedAt - time the REST call started, every change committed before is in the value
+     */
+    public void repair(String product, String mobileNumber, Object value, Instant readStartedAt) {
+        if (!readModelProperties.enabled()) {
+            return;
+        }
+        try {
+            productProjectionRepository.upsert(product, mobileNumber, toJson(value), readStartedAt, Instant.now());
+        } catch (RuntimeException ex) {
+            log.warn("Could not write the {} of mobile number {} to the read model : {}", product, mobileNumber,
+                    ex.toString());
+        }
+    }
+
+    /**
+     * @param mobileNumber - Mobile Number of the Customer
+     * @return the stored products of the mobile number, empty when the read model is disabled or unavailable
+     */
+    public Map<String, ProductProjection> find(String mobileNumber) {
+        if (!readModelProperties.enabled()) {
+            return Map.of();
+        }
+        try {
+            return productProjectionRepository.findByMobileNumber(mobileNumber);
+        } catch (DataAccessException ex) {
+            log.warn("Read model unavailable, reading the products of mobile number {} remotely : {}", mobileNumber,
+                    ex.toString());
+            return Map.of();
+        }
+    }
+
+    /**
+     * @param product - product name
+     * @param projection - stored entry of the product, may be null
+     * @param type - type of the product
+     * @return the product when the entry is fresh, empty when it is missing or stale and must be read remotely
+     */
+    public <T> Optional<Snapshot<T>> read(String product, ProductProjection projection, Class<T> type) {
+        if (!readModelProperties.enabled()) {
+            return Optional.empty();
+        }
+        if (projection == null) {
+            count(product, "missing");
+            return Optional.empty();
+        }
+        if (projection.syncedAt().plus(readModelProperties.maxAge()).isBefore(Instant.now())) {
+            count(product, "stale");
+            return Optional.empty();
+        }
+        try {
+            T value = projection.payload() == null ? null : objectMapper.readValue(projection.payload(), type);
+            count(product, "hit");
+            return Optional.of(new Snapshot<>(value));
+        } catch (JsonProcessingException ex) {
+            log.warn("Unreadable {} entry in the read model : {}", product, ex.toString());
+            count(product, "unreadable");
+            return Optional.empty();
+        }
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Read model entry cannot be serialized: " + value, ex);
+        }
+    }
+
+    private void count(String product, String outcome) {
+        meterRegistry.counter(METRIC_NAME, "product", product, "outcome", outcome).increment();
+    }
+
+    /**
+     * Fresh state of a product.
+     *
+     * @param value - the product, null when the mobile number has none
+     */
+    public record Snapshot<T>(T value) {
+    }
+}
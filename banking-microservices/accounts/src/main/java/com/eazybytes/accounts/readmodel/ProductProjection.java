@@ -0,0 +1,13 @@
+package com.eazybytes.accounts.readmodel;
+
+import java.time.Instant;
+
+/**
+ * Stored state of a product of a mobile number.
+ *
+ * @param payload - JSON of the product, null when the mobile number has none
+ * @param changedAt - time of the change the payload reflects
+ * @param syncedAt - time the payload was last received, from a change event or a REST call
+ */
+public record ProductProjection(String payload, Instant changedAt, Instant syncedAt) {
+}
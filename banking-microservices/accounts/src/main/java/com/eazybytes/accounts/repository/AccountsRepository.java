@@ -4,8 +4,11 @@ import com.eazybytes.accounts.entity.Accounts;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
@@ -17,4 +20,15 @@ public interface AccountsRepository extends JpaRepository<Accounts, Long> {
     @Modifying
     void deleteByCustomerId(Long customerId);
 
+    /**
+     * Clears the communication switch of every listed account in one statement. Accounts already
+     * cleared are left untouched, so a redelivered batch does not change anything.
+     *
+     * @return number of accounts actually updated
+     */
+    @Modifying
+    @Query("update Accounts a set a.communicationSw = false "
+            + "where a.accountNumber in :accountNumbers and a.communicationSw = true")
+    int clearCommunicationSw(@Param("accountNumbers") Collection<Long> accountNumbers);
+
 }
\ No newline at end of file
@@ -1,9 +1,14 @@
 package com.eazybytes.accounts.repository;
 
+import com.eazybytes.accounts.dto.CustomerAccountsDto;
 import com.eazybytes.accounts.entity.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,5 +16,21 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     Optional<Customer> findByMobileNumber(String mobileNumber);
 
+    /**
+     * Loads the customer and its account in one round trip without creating managed entities.
+     * The account columns are {@code null} when the customer has no account.
+     */
+    @Query("select new com.eazybytes.accounts.dto.CustomerAccountsDto(c.customerId, c.name, c.email, c.mobileNumber, "
+            + "a.accountNumber, a.accountType, a.branchAddress, a.communicationSw) "
+            + "from Customer c left join Accounts a on a.customerId = c.customerId "
+            + "where c.mobileNumber = :mobileNumber")
+    Optional<CustomerAccountsDto> findCustomerAccountsByMobileNumber(@Param("mobileNumber") String mobileNumber);
+
+    @Query("select c.mobileNumber from Customer c where c.mobileNumber in :mobileNumbers")
+    List<String> findMobileNumbersIn(@Param("mobileNumbers") Collection<String> mobileNumbers);
+
+    @Query("select c.mobileNumber from Customer c join Accounts a on a.customerId = c.customerId "
+            + "where a.accountNumber in :accountNumbers")
+    List<String> findMobileNumbersByAccountNumbers(@Param("accountNumbers") Collection<Long> accountNumbers);
 
 }
\ No newline at end of file
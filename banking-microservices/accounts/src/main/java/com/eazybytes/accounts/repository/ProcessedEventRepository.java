@@ -0,0 +1,45 @@
+package com.eazybytes.accounts.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Remembers the ids of the events already applied, so a redelivered message is recognised and skipped.
+ */
+@Repository
+@AllArgsConstructor
+public class ProcessedEventRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records the event in the caller's transaction. The primary key makes concurrent consumers of the
+     * same event wait for each other, and only the first one to commit gets {@code true}.
+     *
+     * @param eventId - id of the consumed event
+     * @return true if the event was not processed before
+     */
+    public boolean markProcessed(String eventId) {
+        try {
+            jdbcTemplate.update("INSERT INTO processed_event (event_id, processed_at) VALUES (?, ?)",
+                    eventId, Timestamp.valueOf(LocalDateTime.now()));
+            return true;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * @param processedBefore - events processed before this instant are forgotten
+     * @return number of events removed
+     */
+    public int deleteProcessedBefore(LocalDateTime processedBefore) {
+        return jdbcTemplate.update("DELETE FROM processed_event WHERE processed_at < ?", Timestamp.valueOf(processedBefore));
+    }
+
+}
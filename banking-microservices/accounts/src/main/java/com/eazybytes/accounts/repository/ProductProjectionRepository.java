@@ -0,0 +1,58 @@
+package com.eazybytes.accounts.repository;
+
+import com.eazybytes.accounts.readmodel.ProductProjection;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Local copy of the loans and cards of each mobile number, one row per product. A deleted product is kept
+ * as a row without payload, so a late copy of an older change cannot bring it back.
+ */
+@Repository
+@AllArgsConstructor
+public class ProductProjectionRepository {
+
+    // the assignments run left to right, so changed_at is compared before it is overwritten
+    private static final String UPSERT = "INSERT INTO product_projection (product, mobile_number, payload, changed_at, synced_at) "
+            + "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "payload = IF(VALUES(changed_at) >= changed_at, VALUES(payload), payload), "
+            + "synced_at = IF(VALUES(changed_at) >= changed_at, VALUES(synced_at), synced_at), "
+            + "changed_at = GREATEST(changed_at, VALUES(changed_at))";
+    private static final String SELECT_BY_MOBILE_NUMBER = "SELECT product, payload, changed_at, synced_at "
+            + "FROM product_projection WHERE mobile_number = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Stores the state of a product unless the row already holds a later change.
+     *
+     * @param product - product name
+     * @param mobileNumber - Mobile Number of the Customer
+     * @param payload - JSON of the product, null when it does not exist
+     * @param changedAt - time of the change the payload reflects
+     * @param syncedAt - time the payload was received
+     */
+    public void upsert(String product, String mobileNumber, String payload, Instant changedAt, Instant syncedAt) {
+        jdbcTemplate.update(UPSERT, product, mobileNumber, payload, Timestamp.from(changedAt), Timestamp.from(syncedAt));
+    }
+
+    /**
+     * @param mobileNumber - Mobile Number of the Customer
+     * @return the stored products of the mobile number, by product name
+     */
+    public Map<String, ProductProjection> findByMobileNumber(String mobileNumber) {
+        Map<String, ProductProjection> projections = new HashMap<>(4);
+        jdbcTemplate.query(SELECT_BY_MOBILE_NUMBER, rs -> {
+            projections.put(rs.getString("product"), new ProductProjection(rs.getString("payload"),
+                    rs.getTimestamp("changed_at").toInstant(), rs.getTimestamp("synced_at").toInstant()));
+        }, mobileNumber);
+        return projections;
+    }
+
+}
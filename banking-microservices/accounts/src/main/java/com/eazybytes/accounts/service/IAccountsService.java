@@ -2,6 +2,8 @@ package com.eazybytes.accounts.service;
 
 import com.eazybytes.accounts.dto.CustomerDto;
 
+import java.util.List;
+
 public interface IAccountsService {
 
 
@@ -34,7 +36,16 @@ public interface IAccountsService {
     boolean deleteAccount(String mobileNumber);
 
     /**
-     * @param accountNumber - Account Number
+     * @param accountNumber - Account Number whose communication was sent
+     * @param eventId - id of the communication-sent event, null when the producer did not set one
+     * @return false if the event was already processed or the communication switch was already cleared
+     */
+    boolean updateCommunicationStatus(Long accountNumber, String eventId);
+
+    /**
+     * @param accountNumbers - Account Numbers whose communication was sent
+     * @param eventIds - id of the communication-sent event of each account number, null when the producer did not set one
+     * @return number of accounts whose communication switch was cleared
      */
-    void updateCommunicationStatus(Long accountNumber);
+    int updateCommunicationStatus(List<Long> accountNumbers, List<String> eventIds);
 }
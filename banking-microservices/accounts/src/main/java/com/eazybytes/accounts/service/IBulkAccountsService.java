@@ -0,0 +1,18 @@
+package com.eazybytes.accounts.service;
+
+import com.eazybytes.accounts.dto.BulkCreateResponseDto;
+import com.eazybytes.accounts.dto.CustomerDto;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+public interface IBulkAccountsService {
+
+    /**
+     * Creates a Customer & Account for every element of the stream, chunk by chunk.
+     *
+     * @param customers - stream of CustomerDto Objects, consumed lazily
+     * @param resultConsumer - receives one result per input customer, in input order
+     */
+    void createAccounts(Iterator<CustomerDto> customers, Consumer<BulkCreateResponseDto> resultConsumer);
+}
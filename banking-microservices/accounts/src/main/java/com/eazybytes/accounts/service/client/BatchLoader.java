@@ -0,0 +1,139 @@
+package com.eazybytes.accounts.service.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces the single-key lookups made within a short window into one batch call, in the manner of a DataLoader.
+ * The first {@link #load(Object, String)} of a batch opens it, and the batch is sent once the window has elapsed or
+ * it holds the maximum number of keys, whichever comes first. A key requested twice in the same batch is sent once.
+ * Keys missing from the batch result complete with {@code null}, and a failed batch call fails every key of the batch.
+ * The batch carries the correlation id of the request that opened it; the ids of the other requests are logged.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class BatchLoader<K, V> {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchLoader.class);
+
+    /**
+     * Batch call of a loader.
+     */
+    @FunctionalInterface
+    public interface BatchFunction<K, V> {
+
+        /**
+         * @param keys - distinct keys of the batch, in request order
+         * @param correlationId - correlation id to send with the call
+         * @return values found for the keys, by key
+         */
+        Map<K, V> load(List<K> keys, String correlationId);
+    }
+
+    private final String name;
+    private final BatchFunction<K, V> batchFunction;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Executor executor;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch openBatch;
+
+    /**
+     * @param name - name of the loader, used in logs
+     * @param batchFunction - batch call sending the keys of a batch
+     * @param window - time a batch stays open for more keys after its first one
+     * @param maxBatchSize - number of keys after which a batch is sent without waiting for the window
+     * @param executor - executor running the batch calls
+     */
+    public BatchLoader(String name, BatchFunction<K, V> batchFunction, Duration window, int maxBatchSize,
+                       Executor executor) {
+        this.name = name;
+        this.batchFunction = batchFunction;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+    }
+
+    /**
+     * @param key - key to look up
+     * @param correlationId - correlation id of the calling request
+     * @return value of the key, {@code null} when the batch result has none
+     */
+    public CompletableFuture<V> load(K key, String correlationId) {
+        Batch fullBatch = null;
+        CompletableFuture<V> value;
+        lock.lock();
+        try {
+            Batch batch = openBatch;
+            if (batch == null) {
+                batch = new Batch(correlationId);
+                openBatch = batch;
+                Batch scheduled = batch;
+                CompletableFuture.delayedExecutor(windowNanos, TimeUnit.NANOSECONDS, executor)
+                        .execute(() -> dispatch(scheduled));
+            } else if (log.isDebugEnabled() && !batch.correlationId.equals(correlationId)) {
+                log.debug("{} lookup of correlation id {} joined the batch of correlation id {}", name, correlationId,
+                        batch.correlationId);
+            }
+            value = batch.values.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.values.size() >= maxBatchSize) {
+                openBatch = null;
+                fullBatch = batch;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (fullBatch != null) {
+            Batch sent = fullBatch;
+            executor.execute(() -> dispatch(sent));
+        }
+        return value;
+    }
+
+    private void dispatch(Batch batch) {
+        lock.lock();
+        try {
+            if (batch.sent) {
+                return;
+            }
+            batch.sent = true;
+            if (openBatch == batch) {
+                openBatch = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        List<K> keys = new ArrayList<>(batch.values.keySet());
+        try {
+            Map<K, V> result = batchFunction.load(keys, batch.correlationId);
+            batch.values.forEach((key, value) -> value.complete(result == null ? null : result.get(key)));
+        } catch (RuntimeException ex) {
+            batch.values.values().forEach(value -> value.completeExceptionally(ex));
+        }
+    }
+
+    /**
+     * Keys of one batch call, guarded by the loader's lock until the batch is sent.
+     */
+    private final class Batch {
+
+        private final String correlationId;
+        private final Map<K, CompletableFuture<V>> values = new LinkedHashMap<>();
+        private boolean sent;
+
+        private Batch(String correlationId) {
+            this.correlationId = correlationId;
+        }
+    }
+}
@@ -4,9 +4,13 @@ import com.eazybytes.accounts.dto.CardsDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 @FeignClient("cards")
 public interface CardsFeignClient {
 
@@ -15,5 +19,10 @@ public interface CardsFeignClient {
             @RequestHeader("eazybank-correlation-id") String correlationId,
             @RequestParam String mobileNumber);
 
+    @PostMapping(value = "api/fetchBatch",consumes = "application/json")
+    public ResponseEntity<List<CardsDto>> fetchCardDetailsBatch(
+            @RequestHeader("eazybank-correlation-id") String correlationId,
+            @RequestBody List<String> mobileNumbers);
+
 
 }
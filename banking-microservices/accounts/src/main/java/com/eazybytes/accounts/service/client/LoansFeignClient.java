@@ -4,9 +4,13 @@ import com.eazybytes.accounts.dto.LoansDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 @FeignClient("loans")
 public interface LoansFeignClient {
 
@@ -14,4 +18,9 @@ public interface LoansFeignClient {
     public ResponseEntity<LoansDto> fetchLoansDetails(
             @RequestHeader("eazybank-correlation-id") String correlationId,
             @RequestParam String mobileNumber);
+
+    @PostMapping(value = "api/fetchBatch",consumes = "application/json")
+    public ResponseEntity<List<LoansDto>> fetchLoansDetailsBatch(
+            @RequestHeader("eazybank-correlation-id") String correlationId,
+            @RequestBody List<String> mobileNumbers);
 }
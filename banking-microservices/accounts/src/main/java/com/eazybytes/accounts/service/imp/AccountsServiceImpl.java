@@ -2,34 +2,57 @@ package com.eazybytes.accounts.service.imp;
 
 import com.eazybytes.accounts.constants.AccountsConstants;
 import com.eazybytes.accounts.dto.AccountsDto;
+import com.eazybytes.accounts.dto.CustomerAccountsDto;
 import com.eazybytes.accounts.dto.CustomerDto;
 import com.eazybytes.accounts.entity.Accounts;
 import com.eazybytes.accounts.entity.Customer;
 import com.eazybytes.accounts.exception.CustomerAlreadyExistsException;
 import com.eazybytes.accounts.exception.ResourceNotFoundException;
+import com.eazybytes.accounts.idgen.IdGenerator;
 import com.eazybytes.accounts.mapper.AccountsMapper;
 import com.eazybytes.accounts.mapper.CustomerMapper;
+import com.eazybytes.accounts.outbox.OutboxWriter;
 import com.eazybytes.accounts.repository.AccountsRepository;
 import com.eazybytes.accounts.repository.CustomerRepository;
+import com.eazybytes.accounts.repository.ProcessedEventRepository;
 import com.eazybytes.accounts.service.IAccountsService;
+import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.eazybytes.accounts.dto.AccountsMsgDto;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
-import java.util.Random;
 
 @Service
 @AllArgsConstructor
 public class AccountsServiceImpl implements IAccountsService {
     private static final Logger log = LoggerFactory.getLogger(AccountsServiceImpl.class);
     private final CustomerRepository customerRepository;
+    private final ProcessedEventRepository processedEventRepository;
     private final AccountsRepository accountsRepository;
-    private final StreamBridge streamBridge;
+    private final OutboxWriter outboxWriter;
+    private final CacheManager cacheManager;
+    private final IdGenerator accountNumberGenerator;
+    /**
+     * The customer, the account and the events announcing them are written in one transaction.
+     * The events are published later by the outbox relay, so the request never waits on the broker.
+     *
+     * @param customerDto - CustomerDto Object
+     */
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = AccountsConstants.CUSTOMER_CACHE, key = "#customerDto.mobileNumber")
     public void createAccount(CustomerDto customerDto) {
 
         Customer customer= CustomerMapper.mapToCustomer(customerDto,new Customer());
@@ -38,19 +61,23 @@ public class AccountsServiceImpl implements IAccountsService {
             throw new CustomerAlreadyExistsException("Customer already exists with mobile number "+customerDto.getMobileNumber());
         }
 
-        customerRepository.save(customer);
+        try {
+            customerRepository.save(customer);
+        } catch (DataIntegrityViolationException ex) {
+            // a concurrent request inserted the same mobile number between the check and the insert
+            throw new CustomerAlreadyExistsException("Customer already exists with mobile number "+customerDto.getMobileNumber());
+        }
         Accounts newAccount = createNewAccount(customer);
         accountsRepository.save(newAccount);
         sendCommunication(newAccount, customer);
-        streamBridge.send("accounts-out-0", "Account created with account number: " + newAccount.getAccountNumber());
+        outboxWriter.append("accounts-out-0", "Account created with account number: " + newAccount.getAccountNumber());
     }
 private void sendCommunication(Accounts account, Customer customer) {
         if (account.getCommunicationSw()) {
             var accountsMsgDto = new AccountsMsgDto(account.getAccountNumber(), customer.getName(),
                     customer.getEmail(), customer.getMobileNumber());
-            log.info("Sending Communication request for the details: {}", accountsMsgDto);
-            var result = streamBridge.send("sendCommunication-out-0", accountsMsgDto);
-            log.info("Is the Communication request successfully triggered ? : {}", result);
+            log.info("Queueing Communication request for the details: {}", accountsMsgDto);
+            outboxWriter.append("sendCommunication-out-0", accountsMsgDto);
         }
     }
     /**
@@ -60,9 +87,7 @@ private void sendCommunication(Accounts account, Customer customer) {
     private Accounts createNewAccount(Customer customer) {
         Accounts newAccount = new Accounts();
         newAccount.setCustomerId(customer.getCustomerId());
-        long randomAccNumber = 1000000000L + new Random().nextInt(900000000);
-
-        newAccount.setAccountNumber(randomAccNumber);
+        newAccount.setAccountNumber(accountNumberGenerator.nextId());
         newAccount.setAccountType(AccountsConstants.SAVINGS);
         newAccount.setBranchAddress(AccountsConstants.ADDRESS);
         newAccount.setCommunicationSw(true);
@@ -74,20 +99,22 @@ private void sendCommunication(Accounts account, Customer customer) {
      * @return the account details
      */
     /**
+     * Customer and account are read with a single join query.
+     * Results are cached per mobile number and evicted by every operation that changes the customer or its account.
+     *
      * @param mobileNumber - Input Mobile Number
      * @return Accounts Details based on a given mobileNumber
      */
     @Override
+    @Cacheable(cacheNames = AccountsConstants.CUSTOMER_CACHE, key = "#mobileNumber")
     public CustomerDto fetchAccount(String mobileNumber) {
-        Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
+        CustomerAccountsDto customerAccounts = customerRepository.findCustomerAccountsByMobileNumber(mobileNumber).orElseThrow(
                 () -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)
         );
-        Accounts accounts = accountsRepository.findByCustomerId(customer.getCustomerId()).orElseThrow(
-                () -> new ResourceNotFoundException("Account", "customerId", customer.getCustomerId().toString())
-        );
-        CustomerDto customerDto = CustomerMapper.mapToCustomerDto(customer, new CustomerDto());
-        customerDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
-        return customerDto;
+        if (customerAccounts.accountNumber() == null) {
+            throw new ResourceNotFoundException("Account", "customerId", customerAccounts.customerId().toString());
+        }
+        return CustomerMapper.mapToCustomerDto(customerAccounts, new CustomerDto());
     }
 
     /**
@@ -110,8 +137,11 @@ private void sendCommunication(Accounts account, Customer customer) {
              Customer customer=customerRepository.findById(CustomerId).orElseThrow(
                      () -> new ResourceNotFoundException("Customer", "customerId", CustomerId.toString())
              );
+             String previousMobileNumber = customer.getMobileNumber();
              CustomerMapper.mapToCustomer(customerDto, customer);
              customerRepository.save(customer);
+             evictCustomer(previousMobileNumber);
+             evictCustomer(customer.getMobileNumber());
              isUpdated = true;
         }
         return isUpdated;
@@ -122,6 +152,7 @@ private void sendCommunication(Accounts account, Customer customer) {
      * @return boolean indicating if the deletion of Account is successful or not
      */
     @Override
+    @CacheEvict(cacheNames = AccountsConstants.CUSTOMER_CACHE, key = "#mobileNumber")
     public boolean deleteAccount(String mobileNumber) {
         boolean isDeleted = false;
         Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
@@ -133,12 +164,84 @@ private void sendCommunication(Accounts account, Customer customer) {
         return isDeleted;
     }
 
+    /**
+     * Clears the communication switch with a single conditional UPDATE instead of flipping it, so a
+     * redelivered or concurrently consumed event can never switch it back. The event id is recorded in the
+     * same transaction and an event seen before is skipped without touching the account.
+     *
+     * @param accountNumber - Account Number whose communication was sent
+     * @param eventId - id of the communication-sent event, null when the producer did not set one
+     * @return false if the event was already processed or the communication switch was already cleared
+     */
     @Override
-    public void updateCommunicationStatus(Long accountNumber) {
-        Accounts accounts = accountsRepository.findById(accountNumber).orElseThrow(
-                () -> new ResourceNotFoundException("Account", "AccountNumber", accountNumber.toString())
-        );
-        accounts.setCommunicationSw(!accounts.getCommunicationSw());
-        accountsRepository.save(accounts);
+    @Transactional
+    public boolean updateCommunicationStatus(Long accountNumber, String eventId) {
+        if (eventId != null && !processedEventRepository.markProcessed(eventId)) {
+            log.info("Skipping already processed event {} for the account number : {}", eventId, accountNumber);
+            return false;
+        }
+        List<Long> accountNumbers = List.of(accountNumber);
+        if (accountsRepository.clearCommunicationSw(accountNumbers) == 0) {
+            if (!accountsRepository.existsById(accountNumber)) {
+                throw new ResourceNotFoundException("Account", "AccountNumber", accountNumber.toString());
+            }
+            return false;
+        }
+        customerRepository.findMobileNumbersByAccountNumbers(accountNumbers).forEach(this::evictCustomer);
+        return true;
+    }
+
+    /**
+     * Set-based variant used by the batch consumer: the events already processed are skipped like in
+     * {@link #updateCommunicationStatus(Long, String)}, then one conditional UPDATE covers the rest of the batch.
+     *
+     * @param accountNumbers - Account Numbers whose communication was sent
+     * @param eventIds - id of the communication-sent event of each account number, null when the producer did not set one
+     * @return number of accounts whose communication switch was cleared
+     */
+    @Override
+    @Transactional
+    public int updateCommunicationStatus(List<Long> accountNumbers, List<String> eventIds) {
+        List<Long> unprocessed = new ArrayList<>(accountNumbers.size());
+        for (int i = 0; i < accountNumbers.size(); i++) {
+            String eventId = eventIds.get(i);
+            if (eventId != null && !processedEventRepository.markProcessed(eventId)) {
+                log.info("Skipping already processed event {} for the account number : {}", eventId,
+                        accountNumbers.get(i));
+            } else {
+                unprocessed.add(accountNumbers.get(i));
+            }
+        }
+        if (unprocessed.isEmpty()) {
+            return 0;
+        }
+        int updated = accountsRepository.clearCommunicationSw(unprocessed);
+        if (updated > 0) {
+            customerRepository.findMobileNumbersByAccountNumbers(unprocessed).forEach(this::evictCustomer);
+        }
+        return updated;
+    }
+
+    /**
+     * Inside a transaction the entry is evicted once it commits, otherwise a concurrent read could cache the row
+     * as it was before the change for the whole time to live.
+     *
+     * @param mobileNumber - mobile number of the customer whose cached details are stale
+     */
+    private void evictCustomer(String mobileNumber) {
+        Cache cache = cacheManager.getCache(AccountsConstants.CUSTOMER_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(mobileNumber);
+                }
+            });
+        } else {
+            cache.evict(mobileNumber);
+        }
     }
 }
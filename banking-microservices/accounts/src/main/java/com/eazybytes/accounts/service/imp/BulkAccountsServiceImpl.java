@@ -0,0 +1,153 @@
+package com.eazybytes.accounts.service.imp;
+
+import com.eazybytes.accounts.config.BulkOnboardingProperties;
+import com.eazybytes.accounts.constants.AccountsConstants;
+import com.eazybytes.accounts.dto.AccountsMsgDto;
+import com.eazybytes.accounts.dto.BulkCreateResponseDto;
+import com.eazybytes.accounts.dto.CustomerDto;
+import com.eazybytes.accounts.idgen.IdGenerator;
+import com.eazybytes.accounts.outbox.OutboxMessage;
+import com.eazybytes.accounts.outbox.OutboxWriter;
+import com.eazybytes.accounts.repository.CustomerRepository;
+import com.eazybytes.accounts.service.IBulkAccountsService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+@AllArgsConstructor
+public class BulkAccountsServiceImpl implements IBulkAccountsService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkAccountsServiceImpl.class);
+
+    private static final String INSERT_CUSTOMER = "INSERT INTO customer (name, email, mobile_number, created_at, created_by) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_CUSTOMER_IDS = "SELECT customer_id, mobile_number FROM customer "
+            + "WHERE mobile_number IN (:mobileNumbers)";
+    private static final String INSERT_ACCOUNT = "INSERT INTO accounts (customer_id, account_number, account_type, "
+            + "branch_address, communication_sw, created_at, created_by) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final CustomerRepository customerRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxWriter outboxWriter;
+    private final Validator validator;
+    private final AuditorAware<String> auditorAware;
+    private final BulkOnboardingProperties bulkOnboardingProperties;
+    private final IdGenerator accountNumberGenerator;
+
+    /**
+     * Customers are processed in chunks: one set-based duplicate check, one JDBC batch for the customers and
+     * one for the accounts per chunk, all inside a single transaction that also records the communication events
+     * in the outbox. The results of a chunk are handed to the consumer before the next chunk is read.
+     *
+     * @param customers - stream of CustomerDto Objects, consumed lazily
+     * @param resultConsumer - receives one result per input customer, in input order
+     */
+    @Override
+    public void createAccounts(Iterator<CustomerDto> customers, Consumer<BulkCreateResponseDto> resultConsumer) {
+        int chunkSize = bulkOnboardingProperties.chunkSize();
+        List<CustomerDto> chunk = new ArrayList<>(chunkSize);
+        while (customers.hasNext()) {
+            chunk.add(customers.next());
+            if (chunk.size() == chunkSize) {
+                processChunk(chunk, resultConsumer);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, resultConsumer);
+        }
+    }
+
+    private void processChunk(List<CustomerDto> chunk, Consumer<BulkCreateResponseDto> resultConsumer) {
+        BulkCreateResponseDto[] results = new BulkCreateResponseDto[chunk.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            CustomerDto customerDto = chunk.get(i);
+            Set<ConstraintViolation<CustomerDto>> violations = validator.validate(customerDto);
+            if (!violations.isEmpty()) {
+                results[i] = result(customerDto.getMobileNumber(), AccountsConstants.STATUS_400, violations.stream()
+                        .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", ")));
+            } else if (candidates.putIfAbsent(customerDto.getMobileNumber(), i) != null) {
+                results[i] = duplicate(customerDto.getMobileNumber());
+            }
+        }
+        if (!candidates.isEmpty()) {
+            for (String existing : customerRepository.findMobileNumbersIn(candidates.keySet())) {
+                int index = candidates.remove(existing);
+                results[index] = duplicate(existing);
+            }
+        }
+        if (!candidates.isEmpty()) {
+            List<CustomerDto> newCustomers = candidates.values().stream().map(chunk::get).toList();
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertChunk(newCustomers));
+                candidates.forEach((mobileNumber, index) -> results[index] =
+                        result(mobileNumber, AccountsConstants.STATUS_201, AccountsConstants.MESSAGE_201));
+            } catch (RuntimeException ex) {
+                log.error("Bulk creation of {} customers failed", newCustomers.size(), ex);
+                candidates.forEach((mobileNumber, index) -> results[index] =
+                        result(mobileNumber, AccountsConstants.STATUS_500, AccountsConstants.MESSAGE_500));
+            }
+        }
+        for (BulkCreateResponseDto result : results) {
+            resultConsumer.accept(result);
+        }
+    }
+
+    private void insertChunk(List<CustomerDto> newCustomers) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String createdBy = auditorAware.getCurrentAuditor().orElse(null);
+        List<Object[]> customerRows = new ArrayList<>(newCustomers.size());
+        for (CustomerDto customerDto : newCustomers) {
+            customerRows.add(new Object[]{customerDto.getName(), customerDto.getEmail(), customerDto.getMobileNumber(),
+                    now, createdBy});
+        }
+        jdbcTemplate.getJdbcOperations().batchUpdate(INSERT_CUSTOMER, customerRows);
+
+        Map<String, Long> customerIds = new HashMap<>();
+        jdbcTemplate.query(SELECT_CUSTOMER_IDS,
+                Map.of("mobileNumbers", newCustomers.stream().map(CustomerDto::getMobileNumber).toList()),
+                rs -> { customerIds.put(rs.getString("mobile_number"), rs.getLong("customer_id")); });
+
+        List<Object[]> accountRows = new ArrayList<>(newCustomers.size());
+        List<OutboxMessage> events = new ArrayList<>(newCustomers.size() * 2);
+        for (CustomerDto customerDto : newCustomers) {
+            long accountNumber = accountNumberGenerator.nextId();
+            accountRows.add(new Object[]{customerIds.get(customerDto.getMobileNumber()), accountNumber,
+                    AccountsConstants.SAVINGS, AccountsConstants.ADDRESS, true, now, createdBy});
+            events.add(new OutboxMessage("sendCommunication-out-0", new AccountsMsgDto(accountNumber,
+                    customerDto.getName(), customerDto.getEmail(), customerDto.getMobileNumber())));
+            events.add(new OutboxMessage("accounts-out-0", "Account created with account number: " + accountNumber));
+        }
+        jdbcTemplate.getJdbcOperations().batchUpdate(INSERT_ACCOUNT, accountRows);
+        outboxWriter.appendAll(events);
+    }
+
+    private static BulkCreateResponseDto duplicate(String mobileNumber) {
+        return result(mobileNumber, AccountsConstants.STATUS_400, AccountsConstants.MESSAGE_400_DUPLICATE);
+    }
+
+    private static BulkCreateResponseDto result(String mobileNumber, String statusCode, String statusMessage) {
+        return new BulkCreateResponseDto(mobileNumber, statusCode, statusMessage);
+    }
+}
@@ -1,47 +1,151 @@
 package com.eazybytes.accounts.service.imp;
 
+import com.eazybytes.accounts.config.CustomerDetailsProperties;
+import com.eazybytes.accounts.constants.AccountsConstants;
 import com.eazybytes.accounts.dto.*;
-import com.eazybytes.accounts.entity.Accounts;
-import com.eazybytes.accounts.entity.Customer;
-import com.eazybytes.accounts.exception.ResourceNotFoundException;
-import com.eazybytes.accounts.mapper.AccountsMapper;
 import com.eazybytes.accounts.mapper.CustomerMapper;
-import com.eazybytes.accounts.repository.AccountsRepository;
-import com.eazybytes.accounts.repository.CustomerRepository;
+import com.eazybytes.accounts.readmodel.CustomerProductsReadModel;
+import com.eazybytes.accounts.readmodel.ProductProjection;
+import com.eazybytes.accounts.service.IAccountsService;
 import com.eazybytes.accounts.service.ICustomerService;
+import com.eazybytes.accounts.service.client.BatchLoader;
 import com.eazybytes.accounts.service.client.CardsFeignClient;
 import com.eazybytes.accounts.service.client.LoansFeignClient;
+import feign.FeignException;
 import lombok.AllArgsConstructor;
-import org.springframework.http.ResponseEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
 @Service
 @AllArgsConstructor
 public class CustomerServiceImpl implements ICustomerService {
 
-    private AccountsRepository accountsRepository;
-    private CustomerRepository customerRepository;
+    private static final Logger log = LoggerFactory.getLogger(CustomerServiceImpl.class);
+
+    private IAccountsService accountsService;
     private CardsFeignClient cardsFeignClient;
     private LoansFeignClient loansFeignClient;
+    private ExecutorService customerDetailsExecutor;
+    private CustomerDetailsProperties customerDetailsProperties;
+    private CircuitBreakerFactory<?, ?> circuitBreakerFactory;
+    private BatchLoader<String, LoansDto> loansBatchLoader;
+    private BatchLoader<String, CardsDto> cardsBatchLoader;
+    private CustomerProductsReadModel customerProductsReadModel;
     /**
+     * Customer and account data are read through the cached {@link IAccountsService#fetchAccount(String)}.
+     * The loans and cards calls are issued concurrently, each one guarded by its own circuit breaker
+     * and deadline, so the latency of this method is the slowest leg instead of the sum of both.
+     * When partial responses are enabled a failed leg is returned as {@code null} with its section
+     * status set to {@link AccountsConstants#SECTION_UNAVAILABLE} instead of failing the whole request.
+     * Unless the batch window is zero, the lookups of concurrent requests go out together through the
+     * {@link BatchLoader}s, one {@code fetchBatch} call per microservice and window.
+     * Sections whose entry in the {@link CustomerProductsReadModel} is fresh are served locally without any call,
+     * and the sections read remotely are written back to it.
      *
      * @param mobileNumber input mobile number
+     * @param correlationId correlation id forwarded to the loans and cards microservices
      * @return customer details based on mobile number
      */
     @Override
     public CustomerDetailsDto fetchCustomerDetails(String mobileNumber,String correlationId) {
-        Customer customer = customerRepository.findByMobileNumber(mobileNumber).orElseThrow(
-                () -> new ResourceNotFoundException("Customer", "mobileNumber", mobileNumber)
-        );
-        Accounts accounts = accountsRepository.findByCustomerId(customer.getCustomerId()).orElseThrow(
-                () -> new ResourceNotFoundException("Account", "customerId", customer.getCustomerId().toString())
-        );
-        CustomerDetailsDto customerDetailsDto = CustomerMapper.mapToCustomerDetailsDto(customer, new CustomerDetailsDto());
-        customerDetailsDto.setAccountsDto(AccountsMapper.mapToAccountsDto(accounts, new AccountsDto()));
-        ResponseEntity<LoansDto> loansDtoResponseEntity = loansFeignClient.fetchLoansDetails(correlationId,mobileNumber);
-        customerDetailsDto.setLoansDto(loansDtoResponseEntity.getBody());
-        ResponseEntity<CardsDto> cardsDtoResponseEntity =cardsFeignClient.fetchCardDetails(correlationId,mobileNumber);
-        customerDetailsDto.setCardsDto(cardsDtoResponseEntity.getBody());
+        CustomerDto customerDto = accountsService.fetchAccount(mobileNumber);
+        CustomerDetailsDto customerDetailsDto = CustomerMapper.mapToCustomerDetailsDto(customerDto, new CustomerDetailsDto());
+        boolean batched = !customerDetailsProperties.batchWindow().isZero();
+        Map<String, ProductProjection> projections = customerProductsReadModel.find(mobileNumber);
+        CompletableFuture<Section<LoansDto>> loansFuture = section(AccountsConstants.LOANS_PRODUCT, LoansDto.class,
+                projections, mobileNumber, AccountsConstants.LOANS_CIRCUIT_BREAKER,
+                () -> batched ? await(loansBatchLoader.load(mobileNumber, correlationId))
+                        : loansFeignClient.fetchLoansDetails(correlationId, mobileNumber).getBody());
+        CompletableFuture<Section<CardsDto>> cardsFuture = section(AccountsConstants.CARDS_PRODUCT, CardsDto.class,
+                projections, mobileNumber, AccountsConstants.CARDS_CIRCUIT_BREAKER,
+                () -> batched ? await(cardsBatchLoader.load(mobileNumber, correlationId))
+                        : cardsFeignClient.fetchCardDetails(correlationId, mobileNumber).getBody());
+        Section<LoansDto> loansSection = await(loansFuture);
+        customerDetailsDto.setLoansDto(loansSection.body());
+        customerDetailsDto.setLoansStatus(loansSection.status());
+        Section<CardsDto> cardsSection = await(cardsFuture);
+        customerDetailsDto.setCardsDto(cardsSection.body());
+        customerDetailsDto.setCardsStatus(cardsSection.status());
         return customerDetailsDto;
     }
+
+    /**
+     * Serves the section from the read model when its entry is fresh, otherwise calls the microservice and
+     * writes the product it returns, or its absence, back to the read model.
+     */
+    private <T> CompletableFuture<Section<T>> section(String product, Class<T> type,
+                                                      Map<String, ProductProjection> projections, String mobileNumber,
+                                                      String circuitBreakerName, Supplier<T> call) {
+        Optional<CustomerProductsReadModel.Snapshot<T>> snapshot =
+                customerProductsReadModel.read(product, projections.get(product), type);
+        if (snapshot.isPresent()) {
+            return CompletableFuture.completedFuture(section(snapshot.get().value()));
+        }
+        return fetchSection(circuitBreakerName, () -> {
+            Instant readStartedAt = Instant.now();
+            T body;
+            try {
+                body = call.get();
+            } catch (FeignException.NotFound ex) {
+                customerProductsReadModel.repair(product, mobileNumber, null, readStartedAt);
+                throw ex;
+            }
+            customerProductsReadModel.repair(product, mobileNumber, body, readStartedAt);
+            return body;
+        });
+    }
+
+    private <T> CompletableFuture<Section<T>> fetchSection(String circuitBreakerName, Supplier<T> call) {
+        CircuitBreaker circuitBreaker = circuitBreakerFactory.create(circuitBreakerName);
+        return CompletableFuture.supplyAsync(() -> circuitBreaker.run(() -> section(call.get()),
+                throwable -> degradedSection(circuitBreakerName, throwable)), customerDetailsExecutor);
+    }
+
+    private <T> Section<T> degradedSection(String circuitBreakerName, Throwable throwable) {
+        if (throwable instanceof FeignException.NotFound) {
+            return new Section<>(null, AccountsConstants.SECTION_NOT_FOUND);
+        }
+        if (!customerDetailsProperties.partialResponse()) {
+            throw throwable instanceof RuntimeException ex ? ex : new CompletionException(throwable);
+        }
+        log.warn("Returning customer details without the {} section : {}", circuitBreakerName, throwable.toString());
+        return new Section<>(null, AccountsConstants.SECTION_UNAVAILABLE);
+    }
+
+    /**
+     * A {@code null} body, a mobile number missing from a batch response or from the read model, is reported as
+     * {@link AccountsConstants#SECTION_NOT_FOUND} like the 404 of a single lookup.
+     */
+    private static <T> Section<T> section(T body) {
+        return new Section<>(body, body == null ? AccountsConstants.SECTION_NOT_FOUND : AccountsConstants.SECTION_AVAILABLE);
+    }
+
+    /**
+     * Waits for a downstream leg and rethrows its original runtime exception, so callers and the
+     * {@code GlobalExceptionHandler} see the same failures as with a direct Feign call.
+     */
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private record Section<T>(T body, String status) {
+    }
 }
@@ -7,7 +7,7 @@ CREATE TABLE IF NOT EXISTS `customer` (
     `created_by` varchar(20) NOT NULL,
     `updated_at` date DEFAULT NULL,
     `updated_by` varchar(20) DEFAULT NULL,
-    `communication_sw` boolean NOT NULL
+    UNIQUE KEY `uk_customer_mobile_number` (`mobile_number`)
     );
 
 CREATE TABLE IF NOT EXISTS `accounts` (
@@ -18,5 +18,36 @@ CREATE TABLE IF NOT EXISTS `accounts` (
     `created_at` date NOT NULL,
     `created_by` varchar(20) NOT NULL,
     `updated_at` date DEFAULT NULL,
-    `updated_by` varchar(20) DEFAULT NULL
-    );
\ No newline at end of file
+    `updated_by` varchar(20) DEFAULT NULL,
+    `communication_sw` boolean NOT NULL,
+    KEY `idx_accounts_customer_id` (`customer_id`)
+    );
+CREATE TABLE IF NOT EXISTS `id_block` (
+    `name` varchar(50) NOT NULL,
+    `next_value` bigint NOT NULL,
+    PRIMARY KEY (`name`)
+    );
+
+CREATE TABLE IF NOT EXISTS `outbox_event` (
+    `id` bigint AUTO_INCREMENT PRIMARY KEY,
+    `binding_name` varchar(100) NOT NULL,
+    `content_type` varchar(100) NOT NULL,
+    `payload` text NOT NULL,
+    `created_at` datetime(6) NOT NULL
+    );
+
+CREATE TABLE IF NOT EXISTS `processed_event` (
+    `event_id` varchar(100) NOT NULL,
+    `processed_at` datetime(6) NOT NULL,
+    PRIMARY KEY (`event_id`),
+    KEY `idx_processed_event_processed_at` (`processed_at`)
+    );
+
+CREATE TABLE IF NOT EXISTS `product_projection` (
+    `product` varchar(20) NOT NULL,
+    `mobile_number` varchar(20) NOT NULL,
+    `payload` text DEFAULT NULL,
+    `changed_at` datetime(6) NOT NULL,
+    `synced_at` datetime(6) NOT NULL,
+    PRIMARY KEY (`mobile_number`, `product`)
+    );
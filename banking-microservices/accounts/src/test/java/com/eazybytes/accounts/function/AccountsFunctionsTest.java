@@ -0,0 +1,43 @@
+package com.eazybytes.accounts.function;
+
+import com.eazybytes.accounts.constants.AccountsConstants;
+import com.eazybytes.accounts.service.IAccountsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class AccountsFunctionsTest {
+
+    private final IAccountsService accountsService = mock(IAccountsService.class);
+
+    @Test
+    void batchConsumerPassesTheEventIdOfEachAccountNumber() {
+        Message<List<Long>> message = MessageBuilder.withPayload(List.of(1000000001L, 1000000002L, 1000000003L))
+                .setHeader(AccountsConstants.BATCHED_HEADERS, List.of(
+                        Map.of(AccountsConstants.EVENT_ID_HEADER, "event-1"),
+                        Map.of(),
+                        Map.of(AccountsConstants.EVENT_ID_HEADER, "event-3")))
+                .build();
+
+        new AccountsFunctions().updateCommunicationBatch(accountsService).accept(message);
+
+        verify(accountsService).updateCommunicationStatus(List.of(1000000001L, 1000000002L, 1000000003L),
+                Arrays.asList("event-1", null, "event-3"));
+    }
+
+    @Test
+    void batchConsumerAcceptsABatchWithoutHeaders() {
+        Message<List<Long>> message = MessageBuilder.withPayload(List.of(1000000001L)).build();
+
+        new AccountsFunctions().updateCommunicationBatch(accountsService).accept(message);
+
+        verify(accountsService).updateCommunicationStatus(List.of(1000000001L), Arrays.asList((String) null));
+    }
+}
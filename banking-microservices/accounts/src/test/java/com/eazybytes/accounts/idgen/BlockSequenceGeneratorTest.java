@@ -0,0 +1,72 @@
+package com.eazybytes.accounts.idgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockSequenceGeneratorTest {
+
+    private static final int THREADS = 16;
+    private static final int IDS_PER_THREAD = 50_000;
+    private static final int BLOCK_SIZE = 100;
+
+    @Test
+    void generatesUniqueIdsAcrossThreadsAndInstances() throws Exception {
+        AtomicLong store = new AtomicLong(1000000000L);
+        AtomicInteger allocations = new AtomicInteger();
+        BlockAllocator sharedStore = blockSize -> {
+            allocations.incrementAndGet();
+            return store.getAndAdd(blockSize);
+        };
+        // two generators sharing one store stand in for two instances of the microservice
+        List<IdGenerator> generators = List.of(new BlockSequenceGenerator(sharedStore, BLOCK_SIZE),
+                new BlockSequenceGenerator(sharedStore, BLOCK_SIZE));
+
+        Set<Long> ids = ConcurrentHashMap.newKeySet(THREADS * IDS_PER_THREAD);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                IdGenerator generator = generators.get(t % generators.size());
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        ids.add(generator.nextId());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id >= 1000000000L && id < store.get()));
+        // one round trip to the store per block, plus at most one partially used block per generator
+        assertTrue(allocations.get() <= THREADS * IDS_PER_THREAD / BLOCK_SIZE + generators.size());
+    }
+
+    @Test
+    void rejectsNonPositiveBlockSize() {
+        assertThrows(IllegalArgumentException.class, () -> new BlockSequenceGenerator(blockSize -> 0L, 0));
+    }
+}
@@ -0,0 +1,91 @@
+package com.eazybytes.accounts.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Discrete event simulation on a virtual clock: one request per millisecond over four fake instances, one of
+ * which answers in 200 ms instead of about 10 ms, compared with round-robin over the same instances.
+ */
+class LatencyAwareLoadBalancerSimulationTest {
+
+    private static final int REQUESTS = 50_000;
+    private static final long ARRIVAL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FAST_LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW_LATENCY = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final List<ServiceInstance> instances = List.of(instance("loans-1"), instance("loans-2"),
+            instance("loans-3"), instance("loans-4"));
+    private final ServiceInstance slowInstance = instances.get(3);
+
+    @Test
+    void avoidsASlowInstance() {
+        SimulationResult latencyAware = simulate(true);
+        SimulationResult roundRobin = simulate(false);
+
+        assertTrue(latencyAware.slowShare() < 0.02, "slow instance share " + latencyAware.slowShare());
+        assertTrue(latencyAware.p99Millis() * 4 < roundRobin.p99Millis(),
+                "p99 " + latencyAware.p99Millis() + " ms against " + roundRobin.p99Millis() + " ms");
+    }
+
+    private SimulationResult simulate(boolean latencyAware) {
+        AtomicLong clock = new AtomicLong();
+        LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(null, "loans", Duration.ofSeconds(10),
+                Duration.ofMillis(100), Duration.ofSeconds(1), clock::get);
+        Random random = new Random(42);
+        PriorityQueue<Completion> inFlight = new PriorityQueue<>(Comparator.comparingLong(Completion::at));
+        long[] latencies = new long[REQUESTS];
+        int slowRequests = 0;
+        for (int i = 0; i < REQUESTS; i++) {
+            long now = i * ARRIVAL_INTERVAL;
+            while (!inFlight.isEmpty() && inFlight.peek().at() <= now) {
+                Completion completion = inFlight.poll();
+                clock.set(completion.at());
+                loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS,
+                        completion.request(), completion.response()));
+            }
+            clock.set(now);
+            Request<Object> request = new DefaultRequest<>(new RequestDataContext());
+            Response<ServiceInstance> response = latencyAware
+                    ? loadBalancer.choose(instances) : new DefaultResponse(instances.get(i % instances.size()));
+            loadBalancer.onStartRequest(request, response);
+            boolean slow = response.getServer() == slowInstance;
+            long latency = (slow ? SLOW_LATENCY : FAST_LATENCY) + random.nextLong(FAST_LATENCY / 2);
+            latencies[i] = latency;
+            slowRequests += slow ? 1 : 0;
+            inFlight.add(new Completion(now + latency, request, response));
+        }
+        Arrays.sort(latencies);
+        return new SimulationResult((double) slowRequests / REQUESTS,
+                TimeUnit.NANOSECONDS.toMillis(latencies[REQUESTS / 2]),
+                TimeUnit.NANOSECONDS.toMillis(latencies[(int) (REQUESTS * 0.99)]));
+    }
+
+    private static ServiceInstance instance(String instanceId) {
+        return new DefaultServiceInstance(instanceId, "loans", instanceId, 8090, false);
+    }
+
+    private record Completion(long at, Request<Object> request, Response<ServiceInstance> response) {
+    }
+
+    private record SimulationResult(double slowShare, long p50Millis, long p99Millis) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.eazybytes.accounts.service.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchLoaderTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void coalescesConcurrentLookupsIntoOneBatchCall() throws Exception {
+        BatchLoader<String, String> loader = new BatchLoader<>("test", this::echo, Duration.ofMillis(50), 1000, executor);
+        int requests = 200;
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<String>> values = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            String key = Integer.toString(i % 100);
+            CompletableFuture<String> value = new CompletableFuture<>();
+            values.add(value);
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    start.await();
+                    value.complete(loader.load(key, "correlation-" + key).join());
+                } catch (Throwable ex) {
+                    value.completeExceptionally(ex);
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < requests; i++) {
+            assertEquals("value-" + (i % 100), values.get(i).join());
+        }
+        assertEquals(1, batches.size());
+        assertEquals(100, batches.get(0).size(), "each key is sent once per batch");
+    }
+
+    @Test
+    void sendsAFullBatchWithoutWaitingForTheWindow() {
+        BatchLoader<String, String> loader = new BatchLoader<>("test", this::echo, Duration.ofHours(1), 3, executor);
+
+        List<CompletableFuture<String>> values = List.of(loader.load("1", "c"), loader.load("2", "c"),
+                loader.load("3", "c"));
+
+        assertEquals(List.of("value-1", "value-2", "value-3"), values.stream().map(CompletableFuture::join).toList());
+        assertEquals(List.of(List.of("1", "2", "3")), batches);
+    }
+
+    @Test
+    void completesMissingKeysWithNullAndFailsEveryKeyOfAFailedBatch() {
+        BatchLoader<String, String> partial = new BatchLoader<>("test", (keys, correlationId) -> Map.of("1", "one"),
+                Duration.ofMillis(1), 10, executor);
+        CompletableFuture<String> found = partial.load("1", "c");
+        CompletableFuture<String> missing = partial.load("2", "c");
+        assertEquals("one", found.join());
+        assertNull(missing.join());
+
+        IllegalStateException failure = new IllegalStateException("cards unavailable");
+        BatchLoader<String, String> failing = new BatchLoader<>("test", (keys, correlationId) -> {
+            throw failure;
+        }, Duration.ofMillis(1), 10, executor);
+        CompletableFuture<String> first = failing.load("1", "c");
+        CompletableFuture<String> second = failing.load("2", "c");
+        assertSame(failure, assertThrows(CompletionException.class, first::join).getCause());
+        assertSame(failure, assertThrows(CompletionException.class, second::join).getCause());
+    }
+
+    @Test
+    void opensANewBatchOnceTheWindowHasElapsed() {
+        BatchLoader<String, String> loader = new BatchLoader<>("test", this::echo, Duration.ofMillis(1), 10, executor);
+
+        assertEquals("value-1", loader.load("1", "c").join());
+        assertEquals("value-1", loader.load("1", "c").join());
+
+        assertEquals(2, batches.size());
+        assertTrue(batches.stream().allMatch(batch -> batch.equals(List.of("1"))));
+    }
+
+    private Map<String, String> echo(List<String> keys, String correlationId) {
+        batches.add(List.copyOf(keys));
+        Map<String, String> values = new HashMap<>();
+        for (String key : keys) {
+            values.put(key, "value-" + key);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,67 @@
+package com.eazybytes.accounts.service.imp;
+
+import com.eazybytes.accounts.constants.AccountsConstants;
+import com.eazybytes.accounts.dto.CustomerDto;
+import com.eazybytes.accounts.idgen.IdGenerator;
+import com.eazybytes.accounts.outbox.OutboxWriter;
+import com.eazybytes.accounts.repository.AccountsRepository;
+import com.eazybytes.accounts.repository.CustomerRepository;
+import com.eazybytes.accounts.repository.ProcessedEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccountsServiceImplTest {
+
+    private static final String MOBILE_NUMBER = "4354437687";
+
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+    private final AccountsRepository accountsRepository = mock(AccountsRepository.class);
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(AccountsConstants.CUSTOMER_CACHE);
+    private final AccountsServiceImpl accountsService = new AccountsServiceImpl(customerRepository,
+            mock(ProcessedEventRepository.class), accountsRepository, mock(OutboxWriter.class), cacheManager,
+            mock(IdGenerator.class));
+    private final Cache customers = cacheManager.getCache(AccountsConstants.CUSTOMER_CACHE);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evictsTheCustomerOnlyOnceTheTransactionCommits() {
+        customers.put(MOBILE_NUMBER, new CustomerDto());
+        when(accountsRepository.clearCommunicationSw(List.of(1000000001L))).thenReturn(1);
+        when(customerRepository.findMobileNumbersByAccountNumbers(List.of(1000000001L))).thenReturn(List.of(MOBILE_NUMBER));
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertTrue(accountsService.updateCommunicationStatus(1000000001L, null));
+        assertNotNull(customers.get(MOBILE_NUMBER));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNull(customers.get(MOBILE_NUMBER));
+    }
+
+    @Test
+    void evictsTheCustomerAtOnceOutsideATransaction() {
+        customers.put(MOBILE_NUMBER, new CustomerDto());
+        when(accountsRepository.clearCommunicationSw(List.of(1000000001L))).thenReturn(1);
+        when(customerRepository.findMobileNumbersByAccountNumbers(List.of(1000000001L))).thenReturn(List.of(MOBILE_NUMBER));
+
+        assertTrue(accountsService.updateCommunicationStatus(1000000001L, null));
+        assertNull(customers.get(MOBILE_NUMBER));
+    }
+}
@@ -15,6 +15,11 @@ public final class CardsConstants {
     public static final String  STATUS_417 = "417";
     public static final String  MESSAGE_417_UPDATE= "Update operation failed. Please try again or contact Dev team";
     public static final String  MESSAGE_417_DELETE= "Delete operation failed. Please try again or contact Dev team";
+    public static final String  MESSAGE_417_CAPTURE= "Capture operation failed. The authorization was already captured or reversed";
+    public static final String  MESSAGE_417_REVERSE= "Reverse operation failed. The authorization was already captured or reversed";
+    public static final int  FETCH_BATCH_MAX_SIZE = 1000;
+    // mobile numbers bound to one IN list, well below the placeholder limits of the JDBC drivers
+    public static final int  FETCH_BATCH_CHUNK_SIZE = 500;
     // public static final String  STATUS_500 = "500";
     // public static final String  MESSAGE_500 = "An error occurred. Please try again or contact Dev team";
 
@@ -1,6 +1,7 @@
 package com.eazybytes.cards.controller;
 
 import com.eazybytes.cards.constants.CardsConstants;
+import com.eazybytes.cards.dto.CardAuthorizationDto;
 import com.eazybytes.cards.dto.CardsContactInfoDto;
 import com.eazybytes.cards.dto.CardsDto;
 import com.eazybytes.cards.dto.ErrorResponseDto;
@@ -14,6 +15,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +28,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * @author Eazy Bytes
  */
@@ -107,6 +112,35 @@ public class CardsController {
         return ResponseEntity.status(HttpStatus.OK).body(cardsDto);
     }
 
+    @Operation(
+            summary = "Fetch Card Details in Batch REST API",
+            description = "REST API to fetch the card details of many mobile numbers in one call. " +
+                    "Mobile numbers without a card are left out of the response"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping(path = "/fetchBatch", consumes = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<List<CardsDto>> fetchCardDetailsBatch(
+            @RequestHeader("eazybank-correlation-id") String correlationId,
+            @RequestBody
+            @Size(max = CardsConstants.FETCH_BATCH_MAX_SIZE, message = "At most " + CardsConstants.FETCH_BATCH_MAX_SIZE + " mobile numbers per batch")
+            List<@Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits") String> mobileNumbers) {
+        logger.debug("eazyBank-correlation-id found :{}",correlationId);
+        List<CardsDto> cardsDtos = iCardsService.fetchCards(mobileNumbers);
+        return ResponseEntity.status(HttpStatus.OK).body(cardsDtos);
+    }
+
     @Operation(
             summary = "Update Card Details REST API",
             description = "REST API to update card details based on a card number"
@@ -179,6 +213,114 @@ public class CardsController {
         }
     }
 
+    @Operation(
+            summary = "Authorize Card Spend REST API",
+            description = "REST API to hold an amount on a card, deducted from its available amount " +
+                    "until the authorization is captured or reversed"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "HTTP Status CREATED"
+            ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "Available amount of the card is too low",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping("/authorize")
+    public ResponseEntity<CardAuthorizationDto> authorize(@RequestParam
+                                                          @Pattern(regexp="(^$|[0-9]{12})",message = "CardNumber must be 12 digits")
+                                                          String cardNumber,
+                                                          @RequestParam
+                                                          @Positive(message = "Amount should be greater than zero")
+                                                          int amount) {
+        CardAuthorizationDto cardAuthorizationDto = iCardsService.authorize(cardNumber, amount);
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(cardAuthorizationDto);
+    }
+
+    @Operation(
+            summary = "Capture Card Authorization REST API",
+            description = "REST API to settle the amount held by an authorization into the amount used of the card"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "417",
+                    description = "Expectation Failed"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping("/capture")
+    public ResponseEntity<ResponseDto> captureAuthorization(@RequestParam Long authorizationId) {
+        boolean isCaptured = iCardsService.captureAuthorization(authorizationId);
+        if(isCaptured) {
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .body(new ResponseDto(CardsConstants.STATUS_200, CardsConstants.MESSAGE_200));
+        }else{
+            return ResponseEntity
+                    .status(HttpStatus.EXPECTATION_FAILED)
+                    .body(new ResponseDto(CardsConstants.STATUS_417, CardsConstants.MESSAGE_417_CAPTURE));
+        }
+    }
+
+    @Operation(
+            summary = "Reverse Card Authorization REST API",
+            description = "REST API to release the amount held by an authorization back to the available amount of the card"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "417",
+                    description = "Expectation Failed"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping("/reverse")
+    public ResponseEntity<ResponseDto> reverseAuthorization(@RequestParam Long authorizationId) {
+        boolean isReversed = iCardsService.reverseAuthorization(authorizationId);
+        if(isReversed) {
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .body(new ResponseDto(CardsConstants.STATUS_200, CardsConstants.MESSAGE_200));
+        }else{
+            return ResponseEntity
+                    .status(HttpStatus.EXPECTATION_FAILED)
+                    .body(new ResponseDto(CardsConstants.STATUS_417, CardsConstants.MESSAGE_417_REVERSE));
+        }
+    }
+
     @Operation(
             summary = "Get Build information",
             description = "Get Build information that is deployed into cards microservice"
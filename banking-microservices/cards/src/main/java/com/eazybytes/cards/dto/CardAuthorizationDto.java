@@ -0,0 +1,32 @@
+package com.eazybytes.cards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Schema(name = "CardAuthorization",
+        description = "Schema to hold Card Authorization information"
+)
+@Data
+public class CardAuthorizationDto {
+
+    @Schema(
+            description = "Id of the authorization, used to capture or reverse it", example = "1"
+    )
+    private Long authorizationId;
+
+    @Schema(
+            description = "Card Number the amount is held on", example = "100646930341"
+    )
+    private String cardNumber;
+
+    @Schema(
+            description = "Amount held on the card", example = "250"
+    )
+    private int amount;
+
+    @Schema(
+            description = "Status of the authorization", example = "AUTHORIZED"
+    )
+    private String status;
+
+}
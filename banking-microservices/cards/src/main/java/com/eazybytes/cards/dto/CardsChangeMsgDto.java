@@ -0,0 +1,17 @@
+package com.eazybytes.cards.dto;
+
+import java.time.Instant;
+
+/**
+ * Change of the card of a mobile number, published for the read models of other microservices.
+ *
+ * @param mobileNumber - Mobile Number of the Customer
+ * @param cardsDto - card details after the change, null when the card was deleted
+ * @param changedAt - time of the change, later changes of the same mobile number win
+ */
+public record CardsChangeMsgDto(
+        String mobileNumber,
+        CardsDto cardsDto,
+        Instant changedAt
+) {
+}
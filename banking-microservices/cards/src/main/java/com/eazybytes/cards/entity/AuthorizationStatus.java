@@ -0,0 +1,14 @@
+package com.eazybytes.cards.entity;
+
+public enum AuthorizationStatus {
+
+    /** amount held on the card, deducted from the available amount */
+    AUTHORIZED,
+
+    /** held amount settled, moved to the amount used */
+    CAPTURED,
+
+    /** held amount released, given back to the available amount */
+    REVERSED
+
+}
@@ -0,0 +1,28 @@
+package com.eazybytes.cards.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "card_authorization")
+@Getter @Setter @ToString @AllArgsConstructor @NoArgsConstructor
+public class CardAuthorization {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long authorizationId;
+
+    private String cardNumber;
+
+    private int amount;
+
+    @Enumerated(EnumType.STRING)
+    private AuthorizationStatus status;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+}
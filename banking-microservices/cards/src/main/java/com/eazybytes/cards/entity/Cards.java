@@ -26,5 +26,9 @@ public class Cards extends BaseEntity {
 	private int amountUsed;
 
 	private int availableAmount;
-	
+
+	// guards updateCard against overwriting the balances debited meanwhile by an authorization
+	@Version
+	private long version;
+
 }
@@ -0,0 +1,14 @@
+package com.eazybytes.cards.idgen;
+
+/**
+ * Reserves ranges of identifiers from a store shared by every instance of the microservice.
+ */
+@FunctionalInterface
+public interface BlockAllocator {
+
+    /**
+     * @param blockSize - number of identifiers to reserve
+     * @return first identifier of the reserved range, the range being {@code [start, start + blockSize)}
+     */
+    long allocate(int blockSize);
+}
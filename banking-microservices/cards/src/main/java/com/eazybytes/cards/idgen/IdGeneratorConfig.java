@@ -0,0 +1,21 @@
+package com.eazybytes.cards.idgen;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    /**
+     * Card numbers keep their 12 digit format, so the highest stored string is also the highest number.
+     */
+    @Bean
+    public IdGenerator cardNumberGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                           @Value("${id-generator.block-size:100}") int blockSize) {
+        return new BlockSequenceGenerator(new JdbcBlockAllocator(jdbcTemplate, transactionManager,
+                "card_number", 100000000000L, 999999999999L, "SELECT MAX(card_number) FROM cards"), blockSize);
+    }
+}
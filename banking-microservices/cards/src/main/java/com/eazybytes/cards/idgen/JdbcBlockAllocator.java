@@ -0,0 +1,69 @@
+package com.eazybytes.cards.idgen;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reserves blocks from a row of the {@code id_block} table. The {@code UPDATE} row lock serializes
+ * concurrent instances, and the reservation commits in its own transaction so it is never rolled back
+ * together with the business operation that triggered it: a failed insert only leaves a gap.
+ * The row is created on first use, starting after the highest identifier already stored by the service.
+ */
+public class JdbcBlockAllocator implements BlockAllocator {
+
+    private static final String RESERVE = "UPDATE id_block SET next_value = next_value + ? WHERE name = ?";
+    private static final String READ = "SELECT next_value FROM id_block WHERE name = ?";
+    private static final String CREATE = "INSERT INTO id_block (name, next_value) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String name;
+    private final long minValue;
+    private final long maxValue;
+    private final String currentMaxQuery;
+
+    /**
+     * @param name - name of the sequence row
+     * @param minValue - first identifier of an empty sequence
+     * @param maxValue - highest identifier the sequence may hand out
+     * @param currentMaxQuery - query returning the highest identifier already in use, null when there is none
+     */
+    public JdbcBlockAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              String name, long minValue, long maxValue, String currentMaxQuery) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.name = name;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.currentMaxQuery = currentMaxQuery;
+    }
+
+    @Override
+    public long allocate(int blockSize) {
+        Long start = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(RESERVE, blockSize, name) == 0) {
+                createSequence();
+                jdbcTemplate.update(RESERVE, blockSize, name);
+            }
+            return jdbcTemplate.queryForObject(READ, Long.class, name) - blockSize;
+        });
+        if (start + blockSize - 1 > maxValue) {
+            throw new IllegalStateException("Identifier sequence " + name + " is exhausted");
+        }
+        return start;
+    }
+
+    private void createSequence() {
+        String currentMax = jdbcTemplate.queryForObject(currentMaxQuery, String.class);
+        long first = currentMax == null ? minValue : Math.max(minValue, Long.parseLong(currentMax) + 1);
+        try {
+            jdbcTemplate.update(CREATE, name, first);
+        } catch (DuplicateKeyException ex) {
+            // another instance created the row first, its reservation lock is honoured by the retried update
+        }
+    }
+}
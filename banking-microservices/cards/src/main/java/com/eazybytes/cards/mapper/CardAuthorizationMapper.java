@@ -0,0 +1,17 @@
+package com.eazybytes.cards.mapper;
+
+import com.eazybytes.cards.dto.CardAuthorizationDto;
+import com.eazybytes.cards.entity.CardAuthorization;
+
+public class CardAuthorizationMapper {
+
+    public static CardAuthorizationDto mapToCardAuthorizationDto(CardAuthorization cardAuthorization,
+                                                                 CardAuthorizationDto cardAuthorizationDto) {
+        cardAuthorizationDto.setAuthorizationId(cardAuthorization.getAuthorizationId());
+        cardAuthorizationDto.setCardNumber(cardAuthorization.getCardNumber());
+        cardAuthorizationDto.setAmount(cardAuthorization.getAmount());
+        cardAuthorizationDto.setStatus(cardAuthorization.getStatus().name());
+        return cardAuthorizationDto;
+    }
+
+}
@@ -20,8 +20,8 @@ public class CardsMapper {
         cards.setCardType(cardsDto.getCardType());
         cards.setMobileNumber(cardsDto.getMobileNumber());
         cards.setTotalLimit(cardsDto.getTotalLimit());
-        cards.setAvailableAmount(cardsDto.getAvailableAmount());
-        cards.setAmountUsed(cardsDto.getAmountUsed());
+        // the amount used and the available amount only change through authorizations, a DTO read before an
+        // authorization would otherwise write back its stale balances
         return cards;
     }
 
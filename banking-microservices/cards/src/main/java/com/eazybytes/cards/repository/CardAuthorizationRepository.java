@@ -0,0 +1,28 @@
+package com.eazybytes.cards.repository;
+
+import com.eazybytes.cards.entity.AuthorizationStatus;
+import com.eazybytes.cards.entity.CardAuthorization;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface CardAuthorizationRepository extends JpaRepository<CardAuthorization, Long> {
+
+    /**
+     * Moves an authorization to a new status only if it still has the expected one, so of two concurrent
+     * captures or reversals of the same authorization exactly one succeeds.
+     *
+     * @return 1 when the status was changed, 0 when the authorization no longer has the expected status
+     */
+    @Modifying
+    @Query("update CardAuthorization a set a.status = :to, a.updatedAt = :updatedAt "
+            + "where a.authorizationId = :authorizationId and a.status = :from")
+    int updateStatus(@Param("authorizationId") Long authorizationId, @Param("from") AuthorizationStatus from,
+                     @Param("to") AuthorizationStatus to, @Param("updatedAt") LocalDateTime updatedAt);
+
+}
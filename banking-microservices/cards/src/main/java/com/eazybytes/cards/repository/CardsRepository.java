@@ -2,8 +2,13 @@ package com.eazybytes.cards.repository;
 
 import com.eazybytes.cards.entity.Cards;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,6 +16,39 @@ public interface CardsRepository extends JpaRepository<Cards, Long> {
 
     Optional<Cards> findByMobileNumber(String mobileNumber);
 
+    List<Cards> findByMobileNumberIn(Collection<String> mobileNumbers);
+
     Optional<Cards> findByCardNumber(String cardNumber);
 
+    /**
+     * Holds an amount on a card in one statement. The available amount is checked by the row update itself,
+     * under the row lock, so concurrent authorizations can never take the card below zero.
+     *
+     * @return 1 when the amount was held, 0 when the card does not exist or its available amount is too low
+     */
+    @Modifying
+    @Query("update Cards c set c.availableAmount = c.availableAmount - :amount, c.version = c.version + 1 "
+            + "where c.cardNumber = :cardNumber and c.availableAmount >= :amount")
+    int holdAmount(@Param("cardNumber") String cardNumber, @Param("amount") int amount);
+
+    /**
+     * Settles an amount previously held on a card.
+     *
+     * @return number of cards updated, 0 when the card no longer exists
+     */
+    @Modifying
+    @Query("update Cards c set c.amountUsed = c.amountUsed + :amount, c.version = c.version + 1 "
+            + "where c.cardNumber = :cardNumber")
+    int settleAmount(@Param("cardNumber") String cardNumber, @Param("amount") int amount);
+
+    /**
+     * Releases an amount previously held on a card.
+     *
+     * @return number of cards updated, 0 when the card no longer exists
+     */
+    @Modifying
+    @Query("update Cards c set c.availableAmount = c.availableAmount + :amount, c.version = c.version + 1 "
+            + "where c.cardNumber = :cardNumber")
+    int releaseAmount(@Param("cardNumber") String cardNumber, @Param("amount") int amount);
+
 }
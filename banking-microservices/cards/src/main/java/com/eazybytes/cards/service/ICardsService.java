@@ -1,7 +1,10 @@
 package com.eazybytes.cards.service;
 
+import com.eazybytes.cards.dto.CardAuthorizationDto;
 import com.eazybytes.cards.dto.CardsDto;
 
+import java.util.List;
+
 public interface ICardsService {
 
     /**
@@ -17,6 +20,13 @@ public interface ICardsService {
      */
     CardsDto fetchCard(String mobileNumber);
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Card Details of the given mobileNumbers that have one, in input order
+     */
+    List<CardsDto> fetchCards(List<String> mobileNumbers);
+
     /**
      *
      * @param cardsDto - CardsDto Object
@@ -31,4 +41,26 @@ public interface ICardsService {
      */
     boolean deleteCard(String mobileNumber);
 
+    /**
+     *
+     * @param cardNumber - Card Number to charge
+     * @param amount - Amount to hold on the card
+     * @return the new authorization, holding the amount until it is captured or reversed
+     */
+    CardAuthorizationDto authorize(String cardNumber, int amount);
+
+    /**
+     *
+     * @param authorizationId - Id of the authorization
+     * @return boolean indicating if the held amount was captured, false when it was already captured or reversed
+     */
+    boolean captureAuthorization(Long authorizationId);
+
+    /**
+     *
+     * @param authorizationId - Id of the authorization
+     * @return boolean indicating if the held amount was released, false when it was already captured or reversed
+     */
+    boolean reverseAuthorization(Long authorizationId);
+
 }
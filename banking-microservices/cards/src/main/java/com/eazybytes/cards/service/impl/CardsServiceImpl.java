@@ -1,24 +1,44 @@
 package com.eazybytes.cards.service.impl;
 
 import com.eazybytes.cards.constants.CardsConstants;
+import com.eazybytes.cards.dto.CardAuthorizationDto;
+import com.eazybytes.cards.dto.CardsChangeMsgDto;
 import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.entity.AuthorizationStatus;
+import com.eazybytes.cards.entity.CardAuthorization;
 import com.eazybytes.cards.entity.Cards;
 import com.eazybytes.cards.exception.CardAlreadyExistsException;
+import com.eazybytes.cards.exception.InsufficientFundsException;
 import com.eazybytes.cards.exception.ResourceNotFoundException;
+import com.eazybytes.cards.idgen.IdGenerator;
+import com.eazybytes.cards.mapper.CardAuthorizationMapper;
 import com.eazybytes.cards.mapper.CardsMapper;
+import com.eazybytes.cards.repository.CardAuthorizationRepository;
 import com.eazybytes.cards.repository.CardsRepository;
 import com.eazybytes.cards.service.ICardsService;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
 
 @Service
 @AllArgsConstructor
 public class CardsServiceImpl implements ICardsService {
 
     private CardsRepository cardsRepository;
+    private CardAuthorizationRepository cardAuthorizationRepository;
+    private IdGenerator cardNumberGenerator;
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * @param mobileNumber - Mobile Number of the Customer
@@ -29,7 +49,13 @@ public class CardsServiceImpl implements ICardsService {
         if(optionalCards.isPresent()){
             throw new CardAlreadyExistsException("Card already registered with given mobileNumber "+mobileNumber);
         }
-        cardsRepository.save(createNewCard(mobileNumber));
+        try {
+            Cards cards = cardsRepository.save(createNewCard(mobileNumber));
+            publishChange(mobileNumber, cards);
+        } catch (DataIntegrityViolationException ex) {
+            // a concurrent request inserted the same mobile number between the check and the insert
+            throw new CardAlreadyExistsException("Card already registered with given mobileNumber "+mobileNumber);
+        }
     }
 
     /**
@@ -38,8 +64,7 @@ public class CardsServiceImpl implements ICardsService {
      */
     private Cards createNewCard(String mobileNumber) {
         Cards newCard = new Cards();
-        long randomCardNumber = 100000000000L + new Random().nextInt(900000000);
-        newCard.setCardNumber(Long.toString(randomCardNumber));
+        newCard.setCardNumber(Long.toString(cardNumberGenerator.nextId()));
         newCard.setMobileNumber(mobileNumber);
         newCard.setCardType(CardsConstants.CREDIT_CARD);
         newCard.setTotalLimit(CardsConstants.NEW_CARD_LIMIT);
@@ -62,6 +87,37 @@ public class CardsServiceImpl implements ICardsService {
     }
 
     /**
+     * Distinct mobile numbers are looked up in chunks of {@link CardsConstants#FETCH_BATCH_CHUNK_SIZE},
+     * with one {@code IN} query per chunk instead of one query per mobile number.
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Card Details of the given mobileNumbers that have one, in input order
+     */
+    @Override
+    public List<CardsDto> fetchCards(List<String> mobileNumbers) {
+        List<String> distinctMobileNumbers = new ArrayList<>(new LinkedHashSet<>(mobileNumbers));
+        Map<String, Cards> cardsByMobileNumber = new HashMap<>();
+        for (int from = 0; from < distinctMobileNumbers.size(); from += CardsConstants.FETCH_BATCH_CHUNK_SIZE) {
+            List<String> chunk = distinctMobileNumbers.subList(from,
+                    Math.min(from + CardsConstants.FETCH_BATCH_CHUNK_SIZE, distinctMobileNumbers.size()));
+            for (Cards cards : cardsRepository.findByMobileNumberIn(chunk)) {
+                cardsByMobileNumber.put(cards.getMobileNumber(), cards);
+            }
+        }
+        List<CardsDto> cardsDtos = new ArrayList<>(cardsByMobileNumber.size());
+        for (String mobileNumber : distinctMobileNumbers) {
+            Cards cards = cardsByMobileNumber.get(mobileNumber);
+            if (cards != null) {
+                cardsDtos.add(CardsMapper.mapToCardsDto(cards, new CardsDto()));
+            }
+        }
+        return cardsDtos;
+    }
+
+    /**
+     * The amount used and the available amount of the DTO are ignored, they only change through
+     * authorizations. A new total limit moves the available amount by the same difference, and is refused
+     * when it is below what the card already used or holds.
      *
      * @param cardsDto - CardsDto Object
      * @return boolean indicating if the update of card details is successful or not
@@ -70,8 +126,18 @@ public class CardsServiceImpl implements ICardsService {
     public boolean updateCard(CardsDto cardsDto) {
         Cards cards = cardsRepository.findByCardNumber(cardsDto.getCardNumber()).orElseThrow(
                 () -> new ResourceNotFoundException("Card", "CardNumber", cardsDto.getCardNumber()));
+        int availableAmount = cards.getAvailableAmount() + cardsDto.getTotalLimit() - cards.getTotalLimit();
+        if (availableAmount < 0) {
+            return false;
+        }
+        String previousMobileNumber = cards.getMobileNumber();
         CardsMapper.mapToCards(cardsDto, cards);
+        cards.setAvailableAmount(availableAmount);
         cardsRepository.save(cards);
+        if (!previousMobileNumber.equals(cards.getMobileNumber())) {
+            publishChange(previousMobileNumber, null);
+        }
+        publishChange(cards.getMobileNumber(), cards);
         return  true;
     }
 
@@ -85,8 +151,104 @@ public class CardsServiceImpl implements ICardsService {
                 () -> new ResourceNotFoundException("Card", "mobileNumber", mobileNumber)
         );
         cardsRepository.deleteById(cards.getCardId());
+        publishChange(mobileNumber, null);
         return true;
     }
 
+    /**
+     * The amount is held by a single conditional update of the card row, which checks and debits the available
+     * amount atomically. The authorization is inserted first because the card row stays locked until the
+     * commit, and the card is the row every authorization of the card waits for.
+     *
+     * @param cardNumber - Card Number to charge
+     * @param amount - Amount to hold on the card
+     * @return the new authorization, holding the amount until it is captured or reversed
+     */
+    @Override
+    @Transactional
+    public CardAuthorizationDto authorize(String cardNumber, int amount) {
+        CardAuthorization authorization = cardAuthorizationRepository.save(new CardAuthorization(null, cardNumber,
+                amount, AuthorizationStatus.AUTHORIZED, LocalDateTime.now(), null));
+        if (cardsRepository.holdAmount(cardNumber, amount) == 0) {
+            cardsRepository.findByCardNumber(cardNumber).orElseThrow(
+                    () -> new ResourceNotFoundException("Card", "CardNumber", cardNumber));
+            throw new InsufficientFundsException("Available amount of card " + cardNumber + " is lower than " + amount);
+        }
+        publishChange(cardNumber);
+        return CardAuthorizationMapper.mapToCardAuthorizationDto(authorization, new CardAuthorizationDto());
+    }
+
+    /**
+     * @param authorizationId - Id of the authorization
+     * @return boolean indicating if the held amount was captured, false when it was already captured or reversed
+     */
+    @Override
+    @Transactional
+    public boolean captureAuthorization(Long authorizationId) {
+        CardAuthorization authorization = completeAuthorization(authorizationId, AuthorizationStatus.CAPTURED);
+        if (authorization == null) {
+            return false;
+        }
+        if (cardsRepository.settleAmount(authorization.getCardNumber(), authorization.getAmount()) == 0) {
+            throw new ResourceNotFoundException("Card", "CardNumber", authorization.getCardNumber());
+        }
+        publishChange(authorization.getCardNumber());
+        return true;
+    }
+
+    /**
+     * @param authorizationId - Id of the authorization
+     * @return boolean indicating if the held amount was released, false when it was already captured or reversed
+     */
+    @Override
+    @Transactional
+    public boolean reverseAuthorization(Long authorizationId) {
+        CardAuthorization authorization = completeAuthorization(authorizationId, AuthorizationStatus.REVERSED);
+        if (authorization == null) {
+            return false;
+        }
+        if (cardsRepository.releaseAmount(authorization.getCardNumber(), authorization.getAmount()) == 0) {
+            throw new ResourceNotFoundException("Card", "CardNumber", authorization.getCardNumber());
+        }
+        publishChange(authorization.getCardNumber());
+        return true;
+    }
+
+    /**
+     * Only the caller that moves the authorization out of {@link AuthorizationStatus#AUTHORIZED} may touch the
+     * held amount, so a capture racing a reversal, or a retried capture, applies it once.
+     *
+     * @param authorizationId - Id of the authorization
+     * @param status - final status of the authorization
+     * @return the authorization, null when it was already captured or reversed
+     */
+    private CardAuthorization completeAuthorization(Long authorizationId, AuthorizationStatus status) {
+        CardAuthorization authorization = cardAuthorizationRepository.findById(authorizationId).orElseThrow(
+                () -> new ResourceNotFoundException("Authorization", "authorizationId", authorizationId.toString()));
+        if (cardAuthorizationRepository.updateStatus(authorizationId, AuthorizationStatus.AUTHORIZED, status,
+                LocalDateTime.now()) == 0) {
+            return null;
+        }
+        return authorization;
+    }
+
+    /**
+     * @param cardNumber - Card Number whose amounts changed
+     */
+    private void publishChange(String cardNumber) {
+        Cards cards = cardsRepository.findByCardNumber(cardNumber).orElseThrow(
+                () -> new ResourceNotFoundException("Card", "CardNumber", cardNumber));
+        publishChange(cards.getMobileNumber(), cards);
+    }
+
+    /**
+     * @param mobileNumber - Mobile Number whose card changed
+     * @param cards - card after the change, null when it was deleted
+     */
+    private void publishChange(String mobileNumber, Cards cards) {
+        eventPublisher.publishEvent(new CardsChangeMsgDto(mobileNumber,
+                cards == null ? null : CardsMapper.mapToCardsDto(cards, new CardsDto()), Instant.now()));
+    }
+
 
 }
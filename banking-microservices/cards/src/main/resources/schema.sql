@@ -10,5 +10,25 @@ CREATE TABLE IF NOT EXISTS `cards` (
     `created_by` varchar(20) NOT NULL,
     `updated_at` date DEFAULT NULL,
     `updated_by` varchar(20) DEFAULT NULL,
-    PRIMARY KEY (`card_id`)
-    );
\ No newline at end of file
+    `version` bigint NOT NULL DEFAULT 0,
+    PRIMARY KEY (`card_id`),
+    UNIQUE KEY `uk_cards_mobile_number` (`mobile_number`),
+    UNIQUE KEY `uk_cards_card_number` (`card_number`)
+    );
+
+CREATE TABLE IF NOT EXISTS `id_block` (
+    `name` varchar(50) NOT NULL,
+    `next_value` bigint NOT NULL,
+    PRIMARY KEY (`name`)
+    );
+
+CREATE TABLE IF NOT EXISTS `card_authorization` (
+    `authorization_id` bigint NOT NULL AUTO_INCREMENT,
+    `card_number` varchar(100) NOT NULL,
+    `amount` int NOT NULL,
+    `status` varchar(20) NOT NULL,
+    `created_at` datetime NOT NULL,
+    `updated_at` datetime DEFAULT NULL,
+    PRIMARY KEY (`authorization_id`),
+    KEY `idx_card_authorization_card_number` (`card_number`)
+    );
@@ -0,0 +1,128 @@
+package com.eazybytes.cards.idgen;
+
+import com.eazybytes.cards.audit.AuditAwareImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = {"spring.datasource.url=jdbc:h2:mem:cards-idgen;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=always", "spring.jpa.hibernate.ddl-auto=none", "spring.cloud.config.enabled=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AuditAwareImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcBlockAllocatorTest {
+
+    private static final long MIN_VALUE = 100000000000L;
+    private static final int BLOCK_SIZE = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        jdbcTemplate.update("DELETE FROM id_block");
+        jdbcTemplate.update("DELETE FROM cards");
+    }
+
+    @Test
+    void concurrentInstancesReserveDisjointBlocks() throws Exception {
+        // two allocators on the same row stand in for two instances of the microservice, racing to create it
+        List<JdbcBlockAllocator> allocators = List.of(allocator(999999999999L), allocator(999999999999L));
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            JdbcBlockAllocator allocator = allocators.get(i % allocators.size());
+            tasks.add(() -> allocator.allocate(BLOCK_SIZE));
+        }
+
+        List<Long> starts = runConcurrently(tasks);
+
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            expected.add(MIN_VALUE + (long) i * BLOCK_SIZE);
+        }
+        assertEquals(expected, starts.stream().sorted().toList(), "blocks neither overlap nor leave gaps");
+        assertEquals(MIN_VALUE + (long) tasks.size() * BLOCK_SIZE,
+                jdbcTemplate.queryForObject("SELECT next_value FROM id_block WHERE name = 'card_number'", Long.class));
+    }
+
+    @Test
+    void anEmptySequenceStartsAtTheMinimum() {
+        JdbcBlockAllocator allocator = allocator(999999999999L);
+
+        assertEquals(MIN_VALUE, allocator.allocate(BLOCK_SIZE));
+        assertEquals(MIN_VALUE + BLOCK_SIZE, allocator.allocate(BLOCK_SIZE));
+    }
+
+    @Test
+    void theFirstBlockStartsAfterTheHighestCardNumberAlreadyStored() {
+        saveCard("4354437687", "100000000457");
+        saveCard("4354437688", "100000000099");
+
+        JdbcBlockAllocator allocator = allocator(999999999999L);
+
+        assertEquals(100000000458L, allocator.allocate(BLOCK_SIZE));
+        assertEquals(100000000558L, allocator.allocate(BLOCK_SIZE));
+    }
+
+    @Test
+    void refusesABlockPastTheMaximum() {
+        JdbcBlockAllocator allocator = allocator(MIN_VALUE + 2 * BLOCK_SIZE - 1);
+
+        allocator.allocate(BLOCK_SIZE);
+        allocator.allocate(BLOCK_SIZE);
+        assertThrows(IllegalStateException.class, () -> allocator.allocate(BLOCK_SIZE));
+    }
+
+    private JdbcBlockAllocator allocator(long maxValue) {
+        return new JdbcBlockAllocator(jdbcTemplate, transactionManager, "card_number", MIN_VALUE, maxValue,
+                "SELECT MAX(card_number) FROM cards");
+    }
+
+    private void saveCard(String mobileNumber, String cardNumber) {
+        jdbcTemplate.update("INSERT INTO cards (mobile_number, card_number, card_type, total_limit, amount_used, "
+                + "available_amount, created_at, created_by) VALUES (?, ?, 'Credit Card', 1000, 0, 1000, "
+                + "CURRENT_DATE, 'CARDS_MS')", mobileNumber, cardNumber);
+    }
+
+    private <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,200 @@
+package com.eazybytes.cards.service.impl;
+
+import com.eazybytes.cards.audit.AuditAwareImpl;
+import com.eazybytes.cards.dto.CardAuthorizationDto;
+import com.eazybytes.cards.dto.CardsDto;
+import com.eazybytes.cards.entity.AuthorizationStatus;
+import com.eazybytes.cards.entity.CardAuthorization;
+import com.eazybytes.cards.entity.Cards;
+import com.eazybytes.cards.exception.InsufficientFundsException;
+import com.eazybytes.cards.idgen.IdGenerator;
+import com.eazybytes.cards.repository.CardAuthorizationRepository;
+import com.eazybytes.cards.repository.CardsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"spring.sql.init.mode=never", "spring.cloud.config.enabled=false"})
+@Import({CardsServiceImpl.class, AuditAwareImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CardsServiceImplTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CardsServiceImplTest.class);
+    private static final String CARD_NUMBER = "100000000001";
+
+    @MockitoBean
+    private IdGenerator cardNumberGenerator;
+
+    @Autowired
+    private CardsServiceImpl cardsService;
+
+    @Autowired
+    private CardsRepository cardsRepository;
+
+    @Autowired
+    private CardAuthorizationRepository cardAuthorizationRepository;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        cardAuthorizationRepository.deleteAll();
+        cardsRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentAuthorizationsNeverSpendMoreThanTheAvailableAmount() throws Exception {
+        saveCard(3_000);
+
+        List<Boolean> results = runConcurrently(1_000, () -> {
+            try {
+                cardsService.authorize(CARD_NUMBER, 7);
+                return true;
+            } catch (InsufficientFundsException ex) {
+                return false;
+            }
+        });
+
+        long approved = results.stream().filter(Boolean::booleanValue).count();
+        assertEquals(3_000 / 7, approved);
+        Cards cards = cardsRepository.findByCardNumber(CARD_NUMBER).orElseThrow();
+        assertEquals(3_000 % 7, cards.getAvailableAmount());
+        assertEquals(0, cards.getAmountUsed());
+        assertEquals(approved, cardAuthorizationRepository.count(), "declined authorizations are rolled back");
+    }
+
+    @Test
+    void racingCaptureAndReversalApplyTheHeldAmountOnce() throws Exception {
+        saveCard(10_000);
+        List<Long> authorizationIds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            authorizationIds.add(cardsService.authorize(CARD_NUMBER, 10).getAuthorizationId());
+        }
+
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (Long authorizationId : authorizationIds) {
+            tasks.add(() -> cardsService.captureAuthorization(authorizationId));
+            tasks.add(() -> cardsService.reverseAuthorization(authorizationId));
+            tasks.add(() -> cardsService.captureAuthorization(authorizationId));
+        }
+        List<Boolean> results = runConcurrently(tasks);
+
+        for (int i = 0; i < authorizationIds.size(); i++) {
+            assertEquals(1, results.subList(i * 3, i * 3 + 3).stream().filter(Boolean::booleanValue).count(),
+                    "exactly one of the capture, reversal and retried capture succeeds");
+        }
+        List<CardAuthorization> authorizations = cardAuthorizationRepository.findAll();
+        long captured = authorizations.stream().filter(a -> a.getStatus() == AuthorizationStatus.CAPTURED).count();
+        long reversed = authorizations.stream().filter(a -> a.getStatus() == AuthorizationStatus.REVERSED).count();
+        assertEquals(authorizationIds.size(), captured + reversed);
+        Cards cards = cardsRepository.findByCardNumber(CARD_NUMBER).orElseThrow();
+        assertEquals(captured * 10, cards.getAmountUsed());
+        assertEquals(10_000 - captured * 10, cards.getAvailableAmount());
+    }
+
+    @Test
+    void rejectsAnAuthorizationAboveTheAvailableAmount() {
+        saveCard(100);
+
+        CardAuthorizationDto authorization = cardsService.authorize(CARD_NUMBER, 100);
+        assertThrows(InsufficientFundsException.class, () -> cardsService.authorize(CARD_NUMBER, 1));
+        assertTrue(cardsService.reverseAuthorization(authorization.getAuthorizationId()));
+        cardsService.authorize(CARD_NUMBER, 1);
+
+        assertEquals(99, cardsRepository.findByCardNumber(CARD_NUMBER).orElseThrow().getAvailableAmount());
+    }
+
+    @Test
+    void staleUpdateDoesNotWriteBackTheBalancesItRead() {
+        saveCard(1_000);
+        CardsDto staleCardsDto = cardsService.fetchCard("4354437687");
+        cardsService.authorize(CARD_NUMBER, 400);
+
+        staleCardsDto.setCardType("Platinum Card");
+        assertTrue(cardsService.updateCard(staleCardsDto));
+
+        Cards cards = cardsRepository.findByCardNumber(CARD_NUMBER).orElseThrow();
+        assertEquals("Platinum Card", cards.getCardType());
+        assertEquals(600, cards.getAvailableAmount(), "the amount held after the fetch is kept");
+        assertThrows(InsufficientFundsException.class, () -> cardsService.authorize(CARD_NUMBER, 601));
+
+        staleCardsDto.setTotalLimit(1_500);
+        assertTrue(cardsService.updateCard(staleCardsDto));
+        assertEquals(1_100, cardsRepository.findByCardNumber(CARD_NUMBER).orElseThrow().getAvailableAmount());
+        staleCardsDto.setTotalLimit(300);
+        assertFalse(cardsService.updateCard(staleCardsDto), "the limit cannot drop below the amount held");
+    }
+
+    /**
+     * Rough throughput of authorizations on a single card, the row every one of them contends on. Against
+     * the embedded database it is only a lower bound of the contention overhead, not a MySQL figure.
+     */
+    @Test
+    void measuresAuthorizationThroughputOnOneCard() throws Exception {
+        int authorizations = 2_000;
+        saveCard(authorizations);
+
+        long start = System.nanoTime();
+        List<Boolean> results = runConcurrently(authorizations, () -> {
+            cardsService.authorize(CARD_NUMBER, 1);
+            return true;
+        });
+        long elapsedNanos = System.nanoTime() - start;
+
+        assertEquals(authorizations, results.size());
+        assertEquals(0, cardsRepository.findByCardNumber(CARD_NUMBER).orElseThrow().getAvailableAmount());
+        log.info("{} authorizations on one card in {} ms, {} per second", authorizations,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), authorizations * 1_000_000_000L / elapsedNanos);
+    }
+
+    private void saveCard(int limit) {
+        cardsRepository.save(new Cards(null, "4354437687", CARD_NUMBER, "Credit Card", limit, 0, limit, 0));
+    }
+
+    private List<Boolean> runConcurrently(int count, Callable<Boolean> task) throws Exception {
+        List<Callable<Boolean>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(task);
+        }
+        return runConcurrently(tasks);
+    }
+
+    private List<Boolean> runConcurrently(List<Callable<Boolean>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>(tasks.size());
+        for (Callable<Boolean> task : tasks) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        List<Boolean> results = new ArrayList<>(futures.size());
+        for (Future<Boolean> future : futures) {
+            results.add(future.get(1, TimeUnit.MINUTES));
+        }
+        return results;
+    }
+}
@@ -1,14 +1,33 @@
 package com.eazybytes.gatwayserver;
 
+import com.eazybytes.gatwayserver.config.CoalescingProperties;
+import com.eazybytes.gatwayserver.config.CompressionProperties;
+import com.eazybytes.gatwayserver.config.FallbackProperties;
+import com.eazybytes.gatwayserver.config.JwtCacheProperties;
+import com.eazybytes.gatwayserver.config.LoadBalancingProperties;
+import com.eazybytes.gatwayserver.config.RateLimitProperties;
+import com.eazybytes.gatwayserver.config.ResponseCacheProperties;
+import com.eazybytes.gatwayserver.config.RetryProperties;
+import com.eazybytes.gatwayserver.filters.LastGoodResponses;
+import com.eazybytes.gatwayserver.filters.RequestCoalescing;
+import com.eazybytes.gatwayserver.filters.ResponseCacheFilters;
+import com.eazybytes.gatwayserver.filters.RetryFilters;
+import com.eazybytes.gatwayserver.loadbalancer.LatencyAwareLoadBalancerConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
 
-import java.time.LocalDateTime;
-
 @SpringBootApplication
+@EnableConfigurationProperties({ResponseCacheProperties.class, RateLimitProperties.class, RetryProperties.class,
+		LoadBalancingProperties.class, FallbackProperties.class, JwtCacheProperties.class, CoalescingProperties.class,
+		CompressionProperties.class})
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
 public class GatwayserverApplication {
 
 	public static void main(String[] args) {
@@ -17,28 +36,52 @@ public class GatwayserverApplication {
 
 
 	@Bean
-	public RouteLocator eazyBankRouteConfig(RouteLocatorBuilder routeLocatorBuilder) {
+	public RouteLocator eazyBankRouteConfig(RouteLocatorBuilder routeLocatorBuilder, ResponseCacheFilters responseCacheFilters,
+										   RetryFilters retryFilters, LastGoodResponses lastGoodResponses,
+										   FallbackProperties fallbackProperties, RateLimiter<?> gatewayRateLimiter,
+										   KeyResolver principalOrIpKeyResolver, RequestCoalescing requestCoalescing) {
 		return routeLocatorBuilder.routes()
-				.route(p -> p
+				.route("accounts", p -> p
 						.path("/eazybank/accounts/**")
 						.filters( f -> f.rewritePath("/eazybank/accounts/(?<segment>.*)","/${segment}")
-								.addResponseHeader("X-Response-Time", LocalDateTime.now().toString())
+								.requestRateLimiter(config -> config.setRateLimiter(gatewayRateLimiter)
+										.setKeyResolver(principalOrIpKeyResolver))
+								.filter(responseCacheFilters.forRoute("accounts"))
+								.filter(requestCoalescing.forRoute("accounts"))
 								.circuitBreaker(config->config.setName("accountsCircuitBreaker")
-										.setFallbackUri("forward:/contactSupport")
-								)
-
-						)
-
+										.setFallbackUri("forward:/contact-support")
+										.setStatusCodes(fallbackProperties.statusCodes()))
+								.filter(lastGoodResponses.forRoute("accounts"))
+								.filter(retryFilters.retry("accounts"))
+								.filter(retryFilters.hedging("accounts")))
 						.uri("lb://ACCOUNTS"))
-				.route(p -> p
+				.route("loans", p -> p
 						.path("/eazybank/loans/**")
 						.filters( f -> f.rewritePath("/eazybank/loans/(?<segment>.*)","/${segment}")
-								.addResponseHeader("X-Response-Time", LocalDateTime.now().toString()))
+								.requestRateLimiter(config -> config.setRateLimiter(gatewayRateLimiter)
+										.setKeyResolver(principalOrIpKeyResolver))
+								.filter(responseCacheFilters.forRoute("loans"))
+								.filter(requestCoalescing.forRoute("loans"))
+								.circuitBreaker(config->config.setName("loansCircuitBreaker")
+										.setFallbackUri("forward:/contact-support")
+										.setStatusCodes(fallbackProperties.statusCodes()))
+								.filter(lastGoodResponses.forRoute("loans"))
+								.filter(retryFilters.retry("loans"))
+								.filter(retryFilters.hedging("loans")))
 						.uri("lb://LOANS"))
-				.route(p -> p
+				.route("cards", p -> p
 						.path("/eazybank/cards/**")
 						.filters( f -> f.rewritePath("/eazybank/cards/(?<segment>.*)","/${segment}")
-								.addResponseHeader("X-Response-Time", LocalDateTime.now().toString()))
+								.requestRateLimiter(config -> config.setRateLimiter(gatewayRateLimiter)
+										.setKeyResolver(principalOrIpKeyResolver))
+								.filter(responseCacheFilters.forRoute("cards"))
+								.filter(requestCoalescing.forRoute("cards"))
+								.circuitBreaker(config->config.setName("cardsCircuitBreaker")
+										.setFallbackUri("forward:/contact-support")
+										.setStatusCodes(fallbackProperties.statusCodes()))
+								.filter(lastGoodResponses.forRoute("cards"))
+								.filter(retryFilters.retry("cards"))
+								.filter(retryFilters.hedging("cards")))
 						.uri("lb://CARDS")).build();
 
 	}
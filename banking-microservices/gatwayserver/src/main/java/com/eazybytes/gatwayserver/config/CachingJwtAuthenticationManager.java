@@ -0,0 +1,82 @@
+package com.eazybytes.gatwayserver.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Remembers the authentication built from each validated bearer token until the token expires, so a client
+ * sending the same token again skips the signature check and the role conversion. Entries are keyed by the
+ * SHA-256 digest of the token, never the token itself, and the cache is bounded in size. Tokens that fail
+ * validation are not remembered.
+ */
+public class CachingJwtAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final ReactiveAuthenticationManager delegate;
+    private final Cache<ByteBuffer, Authentication> authentications;
+
+    public CachingJwtAuthenticationManager(ReactiveAuthenticationManager delegate, long cacheSize) {
+        this.delegate = delegate;
+        this.authentications = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof BearerTokenAuthenticationToken bearerToken)) {
+            return delegate.authenticate(authentication);
+        }
+        ByteBuffer key = tokenHash(bearerToken.getToken());
+        Authentication cached = authentications.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return delegate.authenticate(authentication).doOnNext(result -> {
+            if (result instanceof JwtAuthenticationToken jwtAuthentication
+                    && jwtAuthentication.getToken().getExpiresAt() != null) {
+                authentications.put(key, result);
+            }
+        });
+    }
+
+    private static ByteBuffer tokenHash(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, Authentication> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Authentication value, long currentTime) {
+            Instant expiresAt = ((JwtAuthenticationToken) value).getToken().getExpiresAt();
+            return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Authentication value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Authentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
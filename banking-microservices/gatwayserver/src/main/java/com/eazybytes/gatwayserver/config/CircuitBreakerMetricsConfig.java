@@ -0,0 +1,53 @@
+package com.eazybytes.gatwayserver.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.registry.EntryAddedEvent;
+import io.github.resilience4j.core.registry.EntryRemovedEvent;
+import io.github.resilience4j.core.registry.EntryReplacedEvent;
+import io.github.resilience4j.core.registry.RegistryEventConsumer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CircuitBreakerMetricsConfig {
+
+    public static final String TRANSITIONS_METRIC_NAME = "gateway.circuitbreaker.transitions";
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreakerMetricsConfig.class);
+
+    /**
+     * Counts the state transitions of every circuit breaker in {@value #TRANSITIONS_METRIC_NAME}, tagged by breaker
+     * name and states, next to the state and call metrics resilience4j already exports.
+     */
+    @Bean
+    public RegistryEventConsumer<CircuitBreaker> circuitBreakerTransitionMetrics(MeterRegistry meterRegistry) {
+        return new RegistryEventConsumer<>() {
+
+            @Override
+            public void onEntryAddedEvent(EntryAddedEvent<CircuitBreaker> entryAddedEvent) {
+                CircuitBreaker circuitBreaker = entryAddedEvent.getAddedEntry();
+                circuitBreaker.getEventPublisher().onStateTransition(event -> {
+                    logger.warn("Circuit breaker {} : {}", event.getCircuitBreakerName(), event.getStateTransition());
+                    Counter.builder(TRANSITIONS_METRIC_NAME)
+                            .tag("name", event.getCircuitBreakerName())
+                            .tag("from", event.getStateTransition().getFromState().name())
+                            .tag("to", event.getStateTransition().getToState().name())
+                            .register(meterRegistry)
+                            .increment();
+                });
+            }
+
+            @Override
+            public void onEntryRemovedEvent(EntryRemovedEvent<CircuitBreaker> entryRemoveEvent) {
+            }
+
+            @Override
+            public void onEntryReplacedEvent(EntryReplacedEvent<CircuitBreaker> entryReplacedEvent) {
+            }
+        };
+    }
+}
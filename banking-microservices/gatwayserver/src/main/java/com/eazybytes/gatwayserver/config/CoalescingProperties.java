@@ -0,0 +1,20 @@
+package com.eazybytes.gatwayserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.http.HttpMethod;
+
+import java.util.Set;
+
+/**
+ * Coalescing of concurrent identical requests into one upstream call.
+ *
+ * @param enabled - coalesce the requests of every route
+ * @param methods - idempotent methods whose requests are coalesced
+ */
+@ConfigurationProperties(prefix = "gateway.coalescing")
+public record CoalescingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue({"GET", "HEAD"}) Set<HttpMethod> methods
+) {
+}
@@ -0,0 +1,26 @@
+package com.eazybytes.gatwayserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Gzip compression of the responses sent to clients that accept it.
+ *
+ * @param enabled - compress the responses of every route
+ * @param minResponseSize - smaller responses are sent as they are, compressing them costs more than it saves
+ * @param level - deflate level, from 1 for the fastest to 9 for the smallest output
+ * @param mimeTypes - content types of the responses that are compressed
+ */
+@ConfigurationProperties(prefix = "gateway.compression")
+public record CompressionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1KB") DataSize minResponseSize,
+        @DefaultValue("6") int level,
+        @DefaultValue({"application/json", "application/problem+json", "text/html", "text/plain", "text/css",
+                "text/javascript", "application/javascript"}) List<MediaType> mimeTypes
+) {
+}
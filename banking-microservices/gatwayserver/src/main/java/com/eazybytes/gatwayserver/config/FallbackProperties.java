@@ -0,0 +1,27 @@
+package com.eazybytes.gatwayserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Circuit breaker fallbacks of the routes, and the last good responses they answer with while a backend is unavailable.
+ *
+ * @param statusCodes - upstream statuses counted as failures by the circuit breakers and answered by the fallback
+ * @param lastGoodResponse - keep the last successful GET response of each request to answer fallbacks with
+ * @param timeToLive - how long a last good response may be served after it was received
+ * @param maximumSize - maximum number of responses kept for all routes together
+ * @param maxBodySize - responses with a larger body are not kept
+ */
+@ConfigurationProperties(prefix = "gateway.fallback")
+public record FallbackProperties(
+        @DefaultValue({"BAD_GATEWAY", "SERVICE_UNAVAILABLE", "GATEWAY_TIMEOUT"}) Set<String> statusCodes,
+        @DefaultValue("true") boolean lastGoodResponse,
+        @DefaultValue("10m") Duration timeToLive,
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("256KB") DataSize maxBodySize
+) {
+}
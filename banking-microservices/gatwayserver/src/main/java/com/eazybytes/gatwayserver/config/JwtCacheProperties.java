@@ -0,0 +1,25 @@
+package com.eazybytes.gatwayserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Caching of validated access tokens and of the Keycloak JWK set.
+ *
+ * @param cacheSize - maximum number of validated tokens kept, each one until it expires
+ * @param roleCacheSize - maximum number of distinct Keycloak role sets whose granted authorities are kept
+ * @param jwkRefreshInterval - how often the JWK set is fetched in the background
+ * @param jwkMinRefreshInterval - minimum time between two fetches triggered by a token signed with an unknown key
+ * @param jwkTimeout - maximum time to wait for Keycloak when fetching the JWK set
+ */
+@ConfigurationProperties(prefix = "gateway.jwt")
+public record JwtCacheProperties(
+        @DefaultValue("10000") long cacheSize,
+        @DefaultValue("1024") long roleCacheSize,
+        @DefaultValue("5m") Duration jwkRefreshInterval,
+        @DefaultValue("30s") Duration jwkMinRefreshInterval,
+        @DefaultValue("5s") Duration jwkTimeout
+) {
+}
@@ -1,5 +1,7 @@
 package com.eazybytes.gatwayserver.config; 
  
+ import com.github.benmanes.caffeine.cache.Cache; 
+ import com.github.benmanes.caffeine.cache.Caffeine; 
  import org.springframework.core.convert.converter.Converter; 
  import org.springframework.security.core.GrantedAuthority; 
  import org.springframework.security.core.authority.SimpleGrantedAuthority; 
@@ -9,10 +11,20 @@ package com.eazybytes.gatwayserver.config;
  import java.util.Collection; 
  import java.util.List; 
  import java.util.Map; 
- import java.util.stream.Collectors; 
  
  public class KeycloakRoleConverter  implements Converter<Jwt, Collection<GrantedAuthority>> { 
  
+     private final Cache<List<String>, List<GrantedAuthority>> authorities;
+ 
+     /**
+      * @param cacheSize - maximum number of distinct role sets whose authorities are kept
+      */
+     public KeycloakRoleConverter(long cacheSize) {
+         this.authorities = Caffeine.newBuilder()
+                 .maximumSize(cacheSize)
+                 .build();
+     }
+ 
      @Override 
      public Collection<GrantedAuthority> convert(Jwt source) { 
          Map<String, Object> realmAccess = null;
@@ -23,20 +35,26 @@ package com.eazybytes.gatwayserver.config;
              realmAccess = temp;
          }
          if (realmAccess == null || realmAccess.isEmpty()) { 
-             return new ArrayList<>(); 
+             return List.of(); 
          } 
-        Object rolesObj = realmAccess.get("roles");
-        if (!(rolesObj instanceof List)) {
-            return new ArrayList<>();
-        }
-        @SuppressWarnings("unchecked")
-        List<String> roles = (List<String>) rolesObj;
-        Collection<GrantedAuthority> returnValue = roles
-                .stream()
-                .map(roleName -> "ROLE_" + roleName)
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
-         return returnValue; 
+         Object rolesObj = realmAccess.get("roles");
+         if (!(rolesObj instanceof List)) {
+             return List.of();
+         }
+         @SuppressWarnings("unchecked")
+         List<String> roles = (List<String>) rolesObj;
+         return authorities.get(List.copyOf(roles), KeycloakRoleConverter::toAuthorities);
+     } 
+ 
+     /**
+      * Tokens of users with the same roles share one immutable authority list, built once.
+      */
+     private static List<GrantedAuthority> toAuthorities(List<String> roles) {
+         List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+         for (String roleName : roles) {
+             authorities.add(new SimpleGrantedAuthority("ROLE_" + roleName));
+         }
+         return List.copyOf(authorities);
      } 
  
  }
\ No newline at end of file
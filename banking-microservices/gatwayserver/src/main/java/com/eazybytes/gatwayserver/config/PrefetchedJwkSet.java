@@ -0,0 +1,106 @@
+package com.eazybytes.gatwayserver.config;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * JWK source of the JWT decoder that serves keys from memory. The JWK set is fetched at startup and then
+ * refreshed in the background, and a failed refresh keeps serving the previous keys, so validating a token
+ * never waits for Keycloak once the first fetch has completed. A token signed with an unknown key, as
+ * after a key rotation, is rejected and triggers an early refresh, at most once per minimum refresh interval.
+ */
+public class PrefetchedJwkSet implements Function<SignedJWT, Flux<JWK>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrefetchedJwkSet.class);
+
+    private final Supplier<Mono<String>> jwkSetLoader;
+    private final Duration refreshInterval;
+    private final long minRefreshIntervalNanos;
+    private final AtomicReference<JWKSet> jwkSet = new AtomicReference<>();
+    private final AtomicReference<Mono<JWKSet>> inFlightRefresh = new AtomicReference<>();
+    private volatile long lastRefreshStart;
+    private Disposable scheduledRefresh;
+
+    /**
+     * @param jwkSetLoader - fetches the JSON JWK set document
+     * @param refreshInterval - time between two background refreshes
+     * @param minRefreshInterval - minimum time between two refreshes triggered by unknown keys
+     */
+    public PrefetchedJwkSet(Supplier<Mono<String>> jwkSetLoader, Duration refreshInterval, Duration minRefreshInterval) {
+        this.jwkSetLoader = jwkSetLoader;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+        this.lastRefreshStart = System.nanoTime() - minRefreshIntervalNanos;
+    }
+
+    public void start() {
+        scheduledRefresh = Flux.interval(Duration.ZERO, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh().onErrorResume(ex -> Mono.empty()))
+                .subscribe();
+    }
+
+    public void stop() {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.dispose();
+        }
+    }
+
+    @Override
+    public Flux<JWK> apply(SignedJWT signedJwt) {
+        JWKSelector selector = new JWKSelector(JWKMatcher.forJWSHeader(signedJwt.getHeader()));
+        JWKSet current = jwkSet.get();
+        if (current == null) {
+            // only until the first fetch completes
+            return refresh().flatMapIterable(selector::select);
+        }
+        List<JWK> keys = selector.select(current);
+        if (keys.isEmpty() && System.nanoTime() - lastRefreshStart >= minRefreshIntervalNanos) {
+            refresh().subscribe(jwks -> { }, ex -> { });
+        }
+        return Flux.fromIterable(keys);
+    }
+
+    /**
+     * Fetches the JWK set, sharing a fetch that is already running.
+     */
+    Mono<JWKSet> refresh() {
+        Mono<JWKSet> running = inFlightRefresh.get();
+        if (running != null) {
+            return running;
+        }
+        Mono<JWKSet> refresh = Mono.defer(() -> {
+                    lastRefreshStart = System.nanoTime();
+                    return jwkSetLoader.get();
+                })
+                .map(PrefetchedJwkSet::parse)
+                .doOnNext(jwkSet::set)
+                .doOnError(ex -> logger.warn("Could not refresh the JWK set, keeping the previous keys : {}", ex.toString()))
+                .doFinally(signal -> inFlightRefresh.set(null))
+                .cache();
+        return inFlightRefresh.compareAndSet(null, refresh) ? refresh : refresh();
+    }
+
+    private static JWKSet parse(String json) {
+        try {
+            return JWKSet.parse(json);
+        } catch (ParseException ex) {
+            throw new IllegalStateException("Invalid JWK set", ex);
+        }
+    }
+}
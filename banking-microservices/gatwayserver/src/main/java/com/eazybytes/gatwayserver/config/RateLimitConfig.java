@@ -0,0 +1,53 @@
+package com.eazybytes.gatwayserver.config;
+
+import com.eazybytes.gatwayserver.filters.InMemoryRateLimiter;
+import com.eazybytes.gatwayserver.filters.MeteredRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * Buckets are keyed by the JWT subject of authenticated requests and by the client address otherwise.
+     */
+    @Bean
+    public KeyResolver principalOrIpKeyResolver() {
+        return exchange -> exchange.getPrincipal()
+                .map(Principal::getName)
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+                    return remoteAddress == null ? "unknown" : remoteAddress.getAddress().getHostAddress();
+                }));
+    }
+
+    /**
+     * The store is chosen with {@code gateway.rate-limit.store}: the lock-free in-memory limiter for a single
+     * gateway, or the Redis limiter when several replicas must share the same buckets.
+     */
+    @Bean
+    @Primary
+    public RateLimiter<?> gatewayRateLimiter(RateLimitProperties rateLimitProperties, ApplicationContext applicationContext,
+                                             ConfigurationService configurationService, MeterRegistry meterRegistry) {
+        if ("redis".equalsIgnoreCase(rateLimitProperties.store())) {
+            RedisRateLimiter redisRateLimiter = new RedisRateLimiter(rateLimitProperties.replenishRate(),
+                    rateLimitProperties.burstCapacity(), rateLimitProperties.requestedTokens());
+            redisRateLimiter.setApplicationContext(applicationContext);
+            return new MeteredRateLimiter<>(redisRateLimiter, meterRegistry);
+        }
+        return new MeteredRateLimiter<>(new InMemoryRateLimiter(rateLimitProperties.replenishRate(),
+                rateLimitProperties.burstCapacity(), rateLimitProperties.requestedTokens(), configurationService),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,21 @@
+package com.eazybytes.gatwayserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Token bucket applied to every client of every route.
+ *
+ * @param store - {@code memory} for a single gateway, {@code redis} to share the buckets between replicas
+ * @param replenishRate - tokens added to a bucket per second
+ * @param burstCapacity - maximum number of tokens a bucket holds
+ * @param requestedTokens - tokens taken by one request
+ */
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("memory") String store,
+        @DefaultValue("20") int replenishRate,
+        @DefaultValue("40") int burstCapacity,
+        @DefaultValue("1") int requestedTokens
+) {
+}
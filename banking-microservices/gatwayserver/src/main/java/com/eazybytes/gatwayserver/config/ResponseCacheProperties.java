@@ -0,0 +1,25 @@
+package com.eazybytes.gatwayserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Gateway side cache of idempotent backend responses.
+ *
+ * @param enabled - serve the configured paths from the cache
+ * @param timeToLive - how long a response is served from the cache
+ * @param size - memory budget of the cache of each route
+ * @param paths - backend paths, without the route prefix, whose GET responses are cached
+ */
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public record ResponseCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("60s") Duration timeToLive,
+        @DefaultValue("10MB") DataSize size,
+        @DefaultValue({"/api/fetch", "/api/contact-info"}) List<String> paths
+) {
+}
@@ -0,0 +1,54 @@
+package com.eazybytes.gatwayserver.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Retries and hedged requests applied to every route. Only idempotent methods may be listed in {@code methods}.
+ *
+ * @param retries - maximum number of retries of one request
+ * @param methods - methods that may be retried or hedged
+ * @param statuses - upstream statuses that trigger a retry, connection errors and timeouts always do
+ * @param firstBackoff - delay before the first retry
+ * @param maxBackoff - upper bound of the exponential backoff
+ * @param factor - multiplier applied to the backoff after each retry
+ * @param jitter - random share, between 0 and 1, of each backoff delay
+ * @param budgetRatio - retries and hedges a route may send per request it receives
+ * @param budgetReserve - retries and hedges a route may send before it has earned any, also the budget cap
+ * @param hedging - hedged requests settings
+ */
+@ConfigurationProperties(prefix = "gateway.retry")
+public record RetryProperties(
+        @DefaultValue("2") int retries,
+        @DefaultValue({"GET", "HEAD"}) Set<HttpMethod> methods,
+        @DefaultValue({"BAD_GATEWAY", "SERVICE_UNAVAILABLE", "GATEWAY_TIMEOUT"}) Set<HttpStatus> statuses,
+        @DefaultValue("50ms") Duration firstBackoff,
+        @DefaultValue("500ms") Duration maxBackoff,
+        @DefaultValue("2") int factor,
+        @DefaultValue("0.5") double jitter,
+        @DefaultValue("0.1") double budgetRatio,
+        @DefaultValue("10") int budgetReserve,
+        @DefaultValue Hedging hedging
+) {
+
+    /**
+     * @param enabled - send a second request when the first one is slower than the route's usual latency
+     * @param percentile - latency percentile of the route after which the second request is sent
+     * @param minDelay - lower bound of the hedging delay
+     * @param maxDelay - upper bound of the hedging delay
+     * @param minSamples - latencies to observe on a route before it starts hedging
+     */
+    public record Hedging(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("0.95") double percentile,
+            @DefaultValue("10ms") Duration minDelay,
+            @DefaultValue("1s") Duration maxDelay,
+            @DefaultValue("100") int minSamples
+    ) {
+    }
+}
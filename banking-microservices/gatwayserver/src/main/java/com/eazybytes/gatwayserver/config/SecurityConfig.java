@@ -1,5 +1,6 @@
 package com.eazybytes.gatwayserver.config; 
  
+ import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
  import org.springframework.context.annotation.Bean; 
  import org.springframework.context.annotation.Configuration; 
  import org.springframework.core.convert.converter.Converter; 
@@ -8,9 +9,13 @@ package com.eazybytes.gatwayserver.config;
  import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity; 
  import org.springframework.security.config.web.server.ServerHttpSecurity; 
  import org.springframework.security.oauth2.jwt.Jwt; 
+ import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+ import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
  import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter; 
+ import org.springframework.security.oauth2.server.resource.authentication.JwtReactiveAuthenticationManager;
  import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter; 
  import org.springframework.security.web.server.SecurityWebFilterChain; 
+ import org.springframework.web.reactive.function.client.WebClient;
  import reactor.core.publisher.Mono; 
  
  @Configuration 
@@ -18,22 +23,45 @@ package com.eazybytes.gatwayserver.config;
  public class SecurityConfig { 
  
      @Bean 
-     public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity serverHttpSecurity) { 
+     public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity serverHttpSecurity,
+                                                             ReactiveJwtDecoder jwtDecoder,
+                                                             JwtCacheProperties jwtCacheProperties) { 
+         JwtReactiveAuthenticationManager jwtAuthenticationManager = new JwtReactiveAuthenticationManager(jwtDecoder);
+         jwtAuthenticationManager.setJwtAuthenticationConverter(grantedAuthoritiesExtractor(jwtCacheProperties));
          serverHttpSecurity.authorizeExchange(exchanges -> exchanges.pathMatchers(HttpMethod.GET).permitAll() 
                  .pathMatchers("/eazybank/accounts/**").hasRole("ACCOUNTS") 
                  .pathMatchers("/eazybank/cards/**").hasRole("CARDS") 
                  .pathMatchers("/eazybank/loans/**").hasRole("LOANS")) 
                  .oauth2ResourceServer(oAuth2ResourceServerSpec -> oAuth2ResourceServerSpec 
-                         .jwt(jwtSpec -> jwtSpec.jwtAuthenticationConverter(grantedAuthoritiesExtractor()))); 
+                         .jwt(jwtSpec -> jwtSpec.authenticationManager(new CachingJwtAuthenticationManager(
+                                 jwtAuthenticationManager, jwtCacheProperties.cacheSize())))); 
          serverHttpSecurity.csrf(csrfSpec -> csrfSpec.disable()); 
          return serverHttpSecurity.build(); 
      } 
  
-     private Converter<Jwt, Mono<AbstractAuthenticationToken>> grantedAuthoritiesExtractor() { 
+     /**
+      * Validates tokens against keys held in memory by {@link PrefetchedJwkSet}, which refreshes them in the background.
+      */
+     @Bean(initMethod = "start", destroyMethod = "stop")
+     public PrefetchedJwkSet prefetchedJwkSet(OAuth2ResourceServerProperties resourceServerProperties,
+                                              JwtCacheProperties jwtCacheProperties) {
+         String jwkSetUri = resourceServerProperties.getJwt().getJwkSetUri();
+         WebClient webClient = WebClient.create();
+         return new PrefetchedJwkSet(() -> webClient.get().uri(jwkSetUri).retrieve().bodyToMono(String.class)
+                 .timeout(jwtCacheProperties.jwkTimeout()),
+                 jwtCacheProperties.jwkRefreshInterval(), jwtCacheProperties.jwkMinRefreshInterval());
+     }
+
+     @Bean
+     public ReactiveJwtDecoder jwtDecoder(PrefetchedJwkSet prefetchedJwkSet) {
+         return NimbusReactiveJwtDecoder.withJwkSource(prefetchedJwkSet).build();
+     }
+
+     private Converter<Jwt, Mono<AbstractAuthenticationToken>> grantedAuthoritiesExtractor(JwtCacheProperties jwtCacheProperties) { 
          JwtAuthenticationConverter jwtAuthenticationConverter = 
                  new JwtAuthenticationConverter(); 
          jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter 
-                 (new KeycloakRoleConverter()); 
+                 (new KeycloakRoleConverter(jwtCacheProperties.roleCacheSize())); 
          return new ReactiveJwtAuthenticationConverterAdapter(jwtAuthenticationConverter); 
      } 
  }
\ No newline at end of file
@@ -1,14 +1,69 @@
 package com.eazybytes.gatwayserver.controller;
 
+import com.eazybytes.gatwayserver.filters.LastGoodResponses;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
 @RestController
 public class FallbackController {
 
+    public static final String FALLBACK_METRIC_NAME = "gateway.circuitbreaker.fallbacks";
+
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private final LastGoodResponses lastGoodResponses;
+    private final MeterRegistry meterRegistry;
+
+    public FallbackController(LastGoodResponses lastGoodResponses, MeterRegistry meterRegistry) {
+        this.lastGoodResponses = lastGoodResponses;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Fallback of the route circuit breakers. Answers with the last good response to the same request when one
+     * is still kept, marked as stale, and with {@code 503 Service Unavailable} otherwise. Fallbacks are counted
+     * in {@value #FALLBACK_METRIC_NAME}, tagged by route id and outcome.
+     */
     @RequestMapping("/contact-support")
-    public Mono<String> contactSupport() {
-        return Mono.just("An error occurred. Please try after some time or contact support team !");
+    public Mono<ResponseEntity<?>> contactSupport(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        String routeId = route == null ? "none" : route.getId();
+        return Mono.just(lastGoodResponses.find(exchange)
+                .<ResponseEntity<?>>map(lastGood -> {
+                    count(routeId, "last_good_response");
+                    ResponseEntity.BodyBuilder response = ResponseEntity.status(lastGood.status())
+                            .header(HttpHeaders.WARNING, STALE_WARNING)
+                            .header(HttpHeaders.AGE, String.valueOf(
+                                    Duration.between(lastGood.receivedAt(), Instant.now()).toSeconds()))
+                            .cacheControl(CacheControl.noStore());
+                    if (lastGood.contentType() != null) {
+                        response.contentType(lastGood.contentType());
+                    }
+                    return response.body(lastGood.body());
+                })
+                .orElseGet(() -> {
+                    count(routeId, "unavailable");
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .body("An error occurred. Please try after some time or contact support team !");
+                }));
+    }
+
+    private void count(String routeId, String outcome) {
+        Counter.builder(FALLBACK_METRIC_NAME).tag("routeId", routeId).tag("outcome", outcome)
+                .register(meterRegistry).increment();
     }
 }
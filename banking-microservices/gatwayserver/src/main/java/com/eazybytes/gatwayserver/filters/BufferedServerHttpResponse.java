@@ -0,0 +1,107 @@
+package com.eazybytes.gatwayserver.filters;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Response of one attempt of a hedged request, or of the upstream call shared by coalesced requests. Status,
+ * headers and body are kept in memory until the attempt wins and is copied to the client response with
+ * {@link #copyTo(ServerHttpResponse)}, or is read with {@link #drainBody()}, or is discarded with {@link #release()}.
+ */
+final class BufferedServerHttpResponse extends AbstractServerHttpResponse {
+
+    private final AtomicReference<DataBuffer> body = new AtomicReference<>();
+    private volatile boolean released;
+
+    BufferedServerHttpResponse(DataBufferFactory dataBufferFactory) {
+        super(dataBufferFactory);
+    }
+
+    boolean isServerError() {
+        return getStatusCode() != null && getStatusCode().is5xxServerError();
+    }
+
+    Mono<Void> copyTo(ServerHttpResponse response) {
+        response.setStatusCode(getStatusCode());
+        response.getHeaders().putAll(getHeaders());
+        for (List<ResponseCookie> cookies : getCookies().values()) {
+            cookies.forEach(response::addCookie);
+        }
+        DataBuffer buffer = body.getAndSet(null);
+        return buffer == null ? response.setComplete() : response.writeWith(Mono.just(buffer));
+    }
+
+    /**
+     * @return bytes of the body, empty when nothing was written, the buffer being released
+     */
+    byte[] drainBody() {
+        DataBuffer buffer = body.getAndSet(null);
+        if (buffer == null) {
+            return new byte[0];
+        }
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    void release() {
+        released = true;
+        DataBuffer buffer = body.getAndSet(null);
+        if (buffer != null) {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    @Override
+    public <T> T getNativeResponse() {
+        throw new IllegalStateException("A buffered response has no native response");
+    }
+
+    @Override
+    protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
+        // not doOnNext(..).then(), which hands the kept buffer to the discard hooks of the writer, such as the
+        // one of a controller answering a forwarded fallback, and they release it
+        return DataBufferUtils.join(body).flatMap(buffer -> Mono.fromRunnable(() -> keep(buffer)));
+    }
+
+    @Override
+    protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return writeWithInternal(Flux.from(body).concatMap(Flux::from));
+    }
+
+    @Override
+    protected void applyStatusCode() {
+    }
+
+    @Override
+    protected void applyHeaders() {
+    }
+
+    @Override
+    protected void applyCookies() {
+    }
+
+    private void keep(DataBuffer buffer) {
+        DataBuffer previous = body.getAndSet(buffer);
+        if (previous != null) {
+            DataBufferUtils.release(previous);
+        }
+        if (released) {
+            release();
+        }
+    }
+}
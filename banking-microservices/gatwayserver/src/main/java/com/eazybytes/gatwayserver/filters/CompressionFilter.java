@@ -0,0 +1,172 @@
+package com.eazybytes.gatwayserver.filters;
+
+import com.eazybytes.gatwayserver.config.CompressionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Gzips the responses of clients sending {@code Accept-Encoding: gzip}, when the backend has not encoded them
+ * already, their content type is one of the configured ones and their body reaches the minimum size. The body is
+ * buffered to know its size, which suits the JSON responses of the backends; streamed responses are left alone.
+ * Responses of a compressible type get {@code Vary: Accept-Encoding} and a compressed response has its strong
+ * ETag made weak, the bytes sent being those of a different representation.
+ * Per route, the bytes before and after compression are counted in {@value #BYTES_METRIC_NAME}, tagged by stage,
+ * and the time spent compressing, CPU bound on the calling thread, is recorded in {@value #TIME_METRIC_NAME}.
+ */
+@Component
+public class CompressionFilter implements GlobalFilter, Ordered {
+
+    public static final String BYTES_METRIC_NAME = "gateway.compression.bytes";
+    public static final String TIME_METRIC_NAME = "gateway.compression.time";
+
+    private static final String GZIP = "gzip";
+
+    private final CompressionProperties compressionProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteMeters> routeMeters = new ConcurrentHashMap<>();
+
+    public CompressionFilter(CompressionProperties compressionProperties, MeterRegistry meterRegistry) {
+        this.compressionProperties = compressionProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!compressionProperties.enabled() || request.getMethod() == HttpMethod.HEAD
+                || !acceptsGzip(request.getHeaders().get(HttpHeaders.ACCEPT_ENCODING))) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange.mutate().response(new CompressingResponse(exchange)).build());
+    }
+
+    /**
+     * Wraps the response before {@link NettyWriteResponseFilter} writes the backend response to it, and before the
+     * route filters that buffer or replay responses, which therefore all deal with the identity encoding.
+     */
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+
+    static boolean acceptsGzip(List<String> acceptEncodings) {
+        if (acceptEncodings == null) {
+            return false;
+        }
+        for (String header : acceptEncodings) {
+            for (String coding : header.split(",")) {
+                int parameters = coding.indexOf(';');
+                String name = (parameters < 0 ? coding : coding.substring(0, parameters)).trim();
+                if ((name.equalsIgnoreCase(GZIP) || name.equals("*"))
+                        && (parameters < 0 || !coding.substring(parameters + 1).replace(" ", "").matches("q=0(\\.0*)?"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private RouteMeters metersFor(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        String routeId = route == null ? "none" : route.getId();
+        RouteMeters meters = routeMeters.get(routeId);
+        if (meters == null) {
+            meters = routeMeters.computeIfAbsent(routeId, id -> new RouteMeters(
+                    Counter.builder(BYTES_METRIC_NAME).tag("routeId", id).tag("stage", "original").register(meterRegistry),
+                    Counter.builder(BYTES_METRIC_NAME).tag("routeId", id).tag("stage", "compressed").register(meterRegistry),
+                    Timer.builder(TIME_METRIC_NAME).tag("routeId", id).register(meterRegistry)));
+        }
+        return meters;
+    }
+
+    private record RouteMeters(Counter originalBytes, Counter compressedBytes, Timer time) {
+    }
+
+    private class CompressingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+
+        private CompressingResponse(ServerWebExchange exchange) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            if (!isCompressible(getStatusCode(), headers)) {
+                return super.writeWith(body);
+            }
+            headers.addIfAbsent(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            long minResponseSize = compressionProperties.minResponseSize().toBytes();
+            if (headers.getContentLength() >= 0 && headers.getContentLength() < minResponseSize) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).flatMap(buffer -> {
+                int size = buffer.readableByteCount();
+                if (size < minResponseSize) {
+                    return super.writeWith(Mono.just(buffer));
+                }
+                byte[] bytes = new byte[size];
+                buffer.read(bytes);
+                DataBufferUtils.release(buffer);
+                RouteMeters meters = metersFor(exchange);
+                long start = System.nanoTime();
+                DataBuffer compressed = GzipEncoder.encode(bytes, bufferFactory(), compressionProperties.level());
+                meters.time().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                meters.originalBytes().increment(size);
+                meters.compressedBytes().increment(compressed.readableByteCount());
+                headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+                headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                headers.setContentLength(compressed.readableByteCount());
+                String eTag = headers.getETag();
+                if (eTag != null && !eTag.startsWith("W/")) {
+                    headers.setETag("W/" + eTag);
+                }
+                return super.writeWith(Mono.just(compressed));
+            });
+        }
+
+        private boolean isCompressible(HttpStatusCode status, HttpHeaders headers) {
+            if ((status != null && (status.value() == 204 || status.value() == 304))
+                    || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                return false;
+            }
+            MediaType contentType = headers.getContentType();
+            if (contentType == null) {
+                return false;
+            }
+            for (MediaType mimeType : compressionProperties.mimeTypes()) {
+                if (mimeType.isCompatibleWith(contentType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
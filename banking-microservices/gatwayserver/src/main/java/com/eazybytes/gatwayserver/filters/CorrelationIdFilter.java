@@ -0,0 +1,64 @@
+package com.eazybytes.gatwayserver.filters;
+
+import io.micrometer.context.ContextRegistry;
+import org.slf4j.MDC;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Resolves the correlation id of a request once: the {@value #CORRELATION_ID_HEADER} header when the client sent
+ * one, a new random id otherwise, which is then added to the request forwarded downstream. The id is kept in the
+ * {@link #CORRELATION_ID_ATTR} exchange attribute, returned in the response headers and written to the Reactor
+ * context, from where context propagation copies it into the {@value #MDC_KEY} MDC entry of every log line of
+ * the request.
+ */
+@Component
+public class CorrelationIdFilter implements GlobalFilter, Ordered {
+
+    public static final String CORRELATION_ID_HEADER = "eazybank-correlation-id";
+    public static final String CORRELATION_ID_ATTR = CorrelationIdFilter.class.getName() + ".correlationId";
+    public static final String MDC_KEY = "correlation_id";
+
+    public CorrelationIdFilter() {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(MDC_KEY,
+                () -> MDC.get(MDC_KEY), value -> MDC.put(MDC_KEY, value), () -> MDC.remove(MDC_KEY));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String requestCorrelationId = exchange.getRequest().getHeaders().getFirst(CORRELATION_ID_HEADER);
+        String correlationId = requestCorrelationId != null ? requestCorrelationId : newCorrelationId();
+        ServerWebExchange tracedExchange = requestCorrelationId != null ? exchange : exchange.mutate()
+                .request(request -> request.header(CORRELATION_ID_HEADER, correlationId)).build();
+        tracedExchange.getAttributes().put(CORRELATION_ID_ATTR, correlationId);
+        tracedExchange.getResponse().getHeaders().set(CORRELATION_ID_HEADER, correlationId);
+        return chain.filter(tracedExchange).contextWrite(Context.of(MDC_KEY, correlationId));
+    }
+
+    /**
+     * Runs right after {@link ResponseTimeFilter}, so every other filter sees the correlation id.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    /**
+     * Random version 4 UUID drawn from {@link ThreadLocalRandom} rather than the shared {@code SecureRandom} of
+     * {@link UUID#randomUUID()}: a correlation id only has to be unique, not unpredictable.
+     */
+    static String newCorrelationId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+}
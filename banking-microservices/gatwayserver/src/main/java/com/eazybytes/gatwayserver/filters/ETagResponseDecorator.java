@@ -0,0 +1,68 @@
+package com.eazybytes.gatwayserver.filters;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Adds a strong ETag to successful responses that have none, computed from the body, and answers
+ * {@code 304 Not Modified} without a body when it matches the request's {@code If-None-Match}.
+ * The body is buffered to compute the tag, so this is only meant for small JSON responses.
+ */
+class ETagResponseDecorator extends ServerHttpResponseDecorator {
+
+    private final List<String> ifNoneMatch;
+
+    ETagResponseDecorator(ServerHttpResponse delegate, List<String> ifNoneMatch) {
+        super(delegate);
+        this.ifNoneMatch = ifNoneMatch;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        if (getStatusCode() != null && getStatusCode().value() != HttpStatus.OK.value()) {
+            return super.writeWith(body);
+        }
+        return DataBufferUtils.join(body).flatMap(buffer -> {
+            HttpHeaders headers = getHeaders();
+            String eTag = headers.getETag();
+            if (eTag == null) {
+                eTag = "\"" + md5Hex(buffer) + "\"";
+                headers.setETag(eTag);
+            }
+            if (matches(eTag)) {
+                DataBufferUtils.release(buffer);
+                setStatusCode(HttpStatus.NOT_MODIFIED);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                headers.remove(HttpHeaders.CONTENT_TYPE);
+                return super.setComplete();
+            }
+            return super.writeWith(Mono.just(buffer));
+        });
+    }
+
+    private boolean matches(String eTag) {
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals("*") || candidate.equals(eTag) || candidate.equals("W/" + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String md5Hex(DataBuffer buffer) {
+        int readPosition = buffer.readPosition();
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        buffer.readPosition(readPosition);
+        return DigestUtils.md5DigestAsHex(bytes);
+    }
+}
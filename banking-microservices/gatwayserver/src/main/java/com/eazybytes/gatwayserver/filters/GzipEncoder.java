@@ -0,0 +1,63 @@
+package com.eazybytes.gatwayserver.filters;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes gzip members with a {@link Deflater} and a scratch chunk kept per thread, instead of the new deflater,
+ * native memory and stream buffers of each {@link java.util.zip.GZIPOutputStream}. The output goes to a buffer of
+ * the response's factory, which is pooled by the Netty server.
+ */
+final class GzipEncoder {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final ThreadLocal<GzipEncoder> ENCODERS = ThreadLocal.withInitial(GzipEncoder::new);
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private final byte[] chunk = new byte[8192];
+
+    private GzipEncoder() {
+    }
+
+    /**
+     * @param input - bytes to compress, left untouched
+     * @param bufferFactory - factory of the returned buffer
+     * @param level - deflate level
+     * @return gzip member holding the input
+     */
+    static DataBuffer encode(byte[] input, DataBufferFactory bufferFactory, int level) {
+        return ENCODERS.get().deflate(input, bufferFactory, level);
+    }
+
+    private DataBuffer deflate(byte[] input, DataBufferFactory bufferFactory, int level) {
+        DataBuffer output = bufferFactory.allocateBuffer(input.length / 4 + HEADER.length + 8);
+        try {
+            deflater.reset();
+            deflater.setLevel(level);
+            deflater.setInput(input);
+            deflater.finish();
+            crc.reset();
+            crc.update(input);
+            output.write(HEADER);
+            while (!deflater.finished()) {
+                int length = deflater.deflate(chunk);
+                output.write(chunk, 0, length);
+            }
+            writeIntLittleEndian(output, (int) crc.getValue());
+            writeIntLittleEndian(output, input.length);
+            return output;
+        } catch (RuntimeException ex) {
+            DataBufferUtils.release(output);
+            throw ex;
+        }
+    }
+
+    private static void writeIntLittleEndian(DataBuffer output, int value) {
+        output.write(new byte[] {(byte) value, (byte) (value >>> 8), (byte) (value >>> 16), (byte) (value >>> 24)});
+    }
+}
@@ -0,0 +1,154 @@
+package com.eazybytes.gatwayserver.filters;
+
+import com.eazybytes.gatwayserver.config.RetryProperties;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.Connection;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Sends a second copy of a slow request and answers with whichever copy responds first. The hedge leaves once
+ * the first attempt has been running for longer than the route's latency percentile, only when the route's
+ * {@link RetryBudget} allows it. Each attempt runs the rest of the chain on its own copy of the exchange
+ * attributes, so both go through the load balancer, and writes into a {@link BufferedServerHttpResponse}.
+ * The response write filter only sees the attributes of the original exchange, so each attempt reads the body
+ * of its own upstream connection; the loser is cancelled, its connection closed and its buffer released.
+ * A hedge that fails or answers with a 5xx never wins.
+ */
+public class HedgingFilter implements GatewayFilter {
+
+    /**
+     * Instance id of the first attempt, set on the hedge so the load balancer can send it somewhere else.
+     */
+    public static final String EXCLUDED_INSTANCE_ATTR = HedgingFilter.class.getName() + ".excludedInstance";
+
+    private final RetryProperties.Hedging hedging;
+    private final Set<HttpMethod> methods;
+    private final RetryBudget budget;
+    private final LatencyWindow latencyWindow;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    HedgingFilter(RetryProperties.Hedging hedging, Set<HttpMethod> methods, RetryBudget budget,
+                  Counter hedgesSent, Counter hedgesWon) {
+        this.hedging = hedging;
+        this.methods = methods;
+        this.budget = budget;
+        this.latencyWindow = new LatencyWindow(hedging.percentile(), hedging.minSamples());
+        this.hedgesSent = hedgesSent;
+        this.hedgesWon = hedgesWon;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        long delay = hedging.enabled() && methods.contains(exchange.getRequest().getMethod()) ? hedgeDelayNanos() : -1;
+        if (delay < 0) {
+            return chain.filter(exchange).doOnSuccess(done -> latencyWindow.record(System.nanoTime() - start));
+        }
+        Attempt primary = new Attempt(exchange);
+        Attempt hedge = new Attempt(exchange);
+        Mono<Attempt> hedged = Mono.delay(Duration.ofNanos(delay))
+                .filter(tick -> budget.tryWithdraw())
+                .flatMap(tick -> {
+                    hedgesSent.increment();
+                    String primaryInstance = primary.instanceId();
+                    if (primaryInstance != null) {
+                        hedge.getAttributes().put(EXCLUDED_INSTANCE_ATTR, primaryInstance);
+                    }
+                    return hedge.run(chain);
+                })
+                .filter(attempt -> !attempt.response.isServerError())
+                .onErrorResume(ex -> Mono.empty())
+                .switchIfEmpty(Mono.never());
+        return Mono.firstWithSignal(primary.run(chain), hedged)
+                .flatMap(winner -> {
+                    if (winner == hedge) {
+                        hedgesWon.increment();
+                    } else {
+                        latencyWindow.record(System.nanoTime() - start);
+                    }
+                    return winner.response.copyTo(exchange.getResponse());
+                })
+                .doFinally(signal -> {
+                    primary.response.release();
+                    hedge.response.release();
+                });
+    }
+
+    private long hedgeDelayNanos() {
+        long percentile = latencyWindow.percentileNanos();
+        if (percentile < 0) {
+            return -1;
+        }
+        return Math.clamp(percentile, hedging.minDelay().toNanos(), hedging.maxDelay().toNanos());
+    }
+
+    /**
+     * One attempt of a hedged request, with its own attributes and response.
+     */
+    private static final class Attempt extends ServerWebExchangeDecorator {
+
+        private final Map<String, Object> attributes;
+        private final BufferedServerHttpResponse response;
+
+        private Attempt(ServerWebExchange exchange) {
+            super(exchange);
+            this.attributes = new ConcurrentHashMap<>(exchange.getAttributes());
+            this.response = new BufferedServerHttpResponse(exchange.getResponse().bufferFactory());
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return response;
+        }
+
+        private Mono<Attempt> run(GatewayFilterChain chain) {
+            return chain.filter(this)
+                    .then(Mono.defer(this::readBody))
+                    .thenReturn(this)
+                    .doFinally(signal -> {
+                        Connection connection = getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+                        if (signal != SignalType.ON_COMPLETE && connection != null) {
+                            connection.dispose();
+                        }
+                    });
+        }
+
+        private Mono<Void> readBody() {
+            Connection connection = getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+            if (connection == null) {
+                return Mono.empty();
+            }
+            return connection.inbound().receive().aggregate().asByteArray()
+                    .flatMap(bytes -> response.writeWith(Mono.just(response.bufferFactory().wrap(bytes))));
+        }
+
+        private String instanceId() {
+            Response<ServiceInstance> loadBalancerResponse = getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+            return loadBalancerResponse == null || !loadBalancerResponse.hasServer()
+                    ? null : loadBalancerResponse.getServer().getInstanceId();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.eazybytes.gatwayserver.filters;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.validation.constraints.Min;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket rate limiter for a single gateway instance, implemented as the generic cell rate algorithm:
+ * each bucket is one {@link AtomicLong} holding the theoretical arrival time of the next request, updated
+ * with a compare-and-set, so admission never takes a lock. It answers with the same {@code X-RateLimit-*}
+ * headers as {@link RedisRateLimiter}. Idle buckets are dropped once they would be full again anyway.
+ */
+public class InMemoryRateLimiter extends AbstractRateLimiter<InMemoryRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "in-memory-rate-limiter";
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Config defaultConfig;
+    private final Cache<String, AtomicLong> buckets;
+
+    public InMemoryRateLimiter(int replenishRate, int burstCapacity, int requestedTokens,
+                               ConfigurationService configurationService) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.defaultConfig = new Config().setReplenishRate(replenishRate).setBurstCapacity(burstCapacity)
+                .setRequestedTokens(requestedTokens);
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofSeconds(Math.max(60, (long) burstCapacity / replenishRate + 1)))
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        long interval = NANOS_PER_SECOND / config.getReplenishRate();
+        long burstTolerance = interval * config.getBurstCapacity();
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(routeId + ':' + id, key -> new AtomicLong(now));
+        while (true) {
+            long arrival = bucket.get();
+            long nextArrival = Math.max(arrival, now) + interval * config.getRequestedTokens();
+            long allowedFrom = nextArrival - burstTolerance;
+            if (now < allowedFrom) {
+                return Mono.just(new Response(false, headers(config, 0, allowedFrom - now)));
+            }
+            if (bucket.compareAndSet(arrival, nextArrival)) {
+                return Mono.just(new Response(true, headers(config, (now - allowedFrom) / interval, 0)));
+            }
+        }
+    }
+
+    private static Map<String, String> headers(Config config, long remaining, long retryAfterNanos) {
+        String replenishRate = String.valueOf(config.getReplenishRate());
+        String burstCapacity = String.valueOf(config.getBurstCapacity());
+        String requestedTokens = String.valueOf(config.getRequestedTokens());
+        if (retryAfterNanos > 0) {
+            long retryAfterSeconds = (retryAfterNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+            return Map.of(RedisRateLimiter.REMAINING_HEADER, String.valueOf(remaining),
+                    RedisRateLimiter.REPLENISH_RATE_HEADER, replenishRate,
+                    RedisRateLimiter.BURST_CAPACITY_HEADER, burstCapacity,
+                    RedisRateLimiter.REQUESTED_TOKENS_HEADER, requestedTokens,
+                    HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        }
+        return Map.of(RedisRateLimiter.REMAINING_HEADER, String.valueOf(remaining),
+                RedisRateLimiter.REPLENISH_RATE_HEADER, replenishRate,
+                RedisRateLimiter.BURST_CAPACITY_HEADER, burstCapacity,
+                RedisRateLimiter.REQUESTED_TOKENS_HEADER, requestedTokens);
+    }
+
+    public static class Config {
+
+        @Min(1)
+        private int replenishRate;
+
+        @Min(1)
+        private int burstCapacity = 1;
+
+        @Min(1)
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.eazybytes.gatwayserver.filters;
+
+import com.eazybytes.gatwayserver.config.FallbackProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+
+/**
+ * Keeps the last successful GET response of each request so the circuit breaker fallback can answer with it
+ * while the backend is unavailable. Responses are keyed by route, path, query and a digest of the
+ * {@code Authorization} header, so a client is only ever served a response to its own credentials.
+ * The body is copied as it streams to the client and the entries are bounded in number and age. The fallback
+ * answer itself is written through the same response, and is not recorded again.
+ */
+@Component
+public class LastGoodResponses {
+
+    private static final String KEY_ATTR = LastGoodResponses.class.getName() + ".key";
+    // before the response write filter, which only writes the backend response once the rest of the chain is done
+    private static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private final FallbackProperties fallbackProperties;
+    private final Cache<String, LastGoodResponse> responses;
+
+    public LastGoodResponses(FallbackProperties fallbackProperties) {
+        this.fallbackProperties = fallbackProperties;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(fallbackProperties.maximumSize())
+                .expireAfterWrite(fallbackProperties.timeToLive())
+                .build();
+    }
+
+    /**
+     * @param routeId - id of the route
+     * @return filter recording the responses of the route, ordered around its circuit breaker and the
+     * response write filter so that it sees the body written to the client
+     */
+    public GatewayFilter forRoute(String routeId) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (!fallbackProperties.lastGoodResponse() || request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            String key = key(routeId, request);
+            exchange.getAttributes().put(KEY_ATTR, key);
+            return chain.filter(exchange.mutate().response(new RecordingResponse(exchange, key)).build());
+        }, ORDER);
+    }
+
+    /**
+     * @return the last good response to the request of a fallback exchange, if one is still kept
+     */
+    public Optional<LastGoodResponse> find(ServerWebExchange exchange) {
+        String key = exchange.getAttribute(KEY_ATTR);
+        return key == null ? Optional.empty() : Optional.ofNullable(responses.getIfPresent(key));
+    }
+
+    private static String key(String routeId, ServerHttpRequest request) {
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        return routeId + ' ' + request.getURI().getRawPath() + '?' + request.getURI().getRawQuery() + ' '
+                + (authorization == null ? "" : DigestUtils.md5DigestAsHex(authorization.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param status - status of the response
+     * @param contentType - content type of the body, may be null
+     * @param body - bytes of the body
+     * @param receivedAt - when the response was received from the backend
+     */
+    public record LastGoodResponse(HttpStatusCode status, MediaType contentType, byte[] body, Instant receivedAt) {
+    }
+
+    private class RecordingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+
+        private RecordingResponse(ServerWebExchange exchange, String key) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status == null || !status.is2xxSuccessful()
+                    || exchange.getAttributes().containsKey(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR)) {
+                return super.writeWith(body);
+            }
+            long maxBodySize = fallbackProperties.maxBodySize().toBytes();
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            Flux<DataBuffer> recorded = Flux.<DataBuffer>from(body)
+                    .doOnNext(buffer -> {
+                        if (copy.size() <= maxBodySize) {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), 0, bytes.length);
+                            copy.writeBytes(bytes);
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (copy.size() <= maxBodySize) {
+                            responses.put(key, new LastGoodResponse(status, getHeaders().getContentType(),
+                                    copy.toByteArray(), Instant.now()));
+                        }
+                    });
+            return super.writeWith(recorded);
+        }
+    }
+}
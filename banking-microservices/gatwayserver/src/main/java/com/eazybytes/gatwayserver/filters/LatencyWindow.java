@@ -0,0 +1,59 @@
+package com.eazybytes.gatwayserver.filters;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latencies of the last {@value #SIZE} requests of a route in a ring buffer. Recording is one atomic increment
+ * and one store; the percentile is recomputed from a sorted copy at most once per second, by a single caller.
+ */
+final class LatencyWindow {
+
+    private static final int SIZE = 1024;
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final double percentile;
+    private final int minSamples;
+    private volatile long percentileNanos = -1;
+    private volatile long computedAt;
+
+    LatencyWindow(double percentile, int minSamples) {
+        this.percentile = percentile;
+        this.minSamples = Math.min(minSamples, SIZE);
+        this.computedAt = System.nanoTime() - REFRESH_NANOS;
+    }
+
+    void record(long nanos) {
+        samples.set((int) (count.getAndIncrement() & (SIZE - 1)), nanos);
+    }
+
+    /**
+     * @return the configured latency percentile in nanoseconds, or -1 while fewer than the minimum samples were seen
+     */
+    long percentileNanos() {
+        long now = System.nanoTime();
+        if (now - computedAt >= REFRESH_NANOS && refreshing.compareAndSet(false, true)) {
+            try {
+                int size = (int) Math.min(count.get(), SIZE);
+                if (size >= minSamples) {
+                    long[] sorted = new long[size];
+                    for (int i = 0; i < size; i++) {
+                        sorted[i] = samples.get(i);
+                    }
+                    Arrays.sort(sorted);
+                    percentileNanos = sorted[Math.max(0, (int) Math.ceil(percentile * size) - 1)];
+                }
+                computedAt = now;
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        return percentileNanos;
+    }
+}
@@ -0,0 +1,51 @@
+package com.eazybytes.gatwayserver.filters;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the requests rejected by the wrapped rate limiter in the {@value #METRIC_NAME} counter, tagged by route id.
+ */
+public class MeteredRateLimiter<C> implements RateLimiter<C> {
+
+    public static final String METRIC_NAME = "gateway.ratelimit.rejected";
+
+    private final RateLimiter<C> delegate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+
+    public MeteredRateLimiter(RateLimiter<C> delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        return delegate.isAllowed(routeId, id).doOnNext(response -> {
+            if (!response.isAllowed()) {
+                rejectedCounters.computeIfAbsent(routeId, key -> Counter.builder(METRIC_NAME)
+                        .tag("routeId", key).register(meterRegistry)).increment();
+            }
+        });
+    }
+
+    @Override
+    public Map<String, C> getConfig() {
+        return delegate.getConfig();
+    }
+
+    @Override
+    public Class<C> getConfigClass() {
+        return delegate.getConfigClass();
+    }
+
+    @Override
+    public C newConfig() {
+        return delegate.newConfig();
+    }
+}
@@ -0,0 +1,124 @@
+package com.eazybytes.gatwayserver.filters;
+
+import com.eazybytes.gatwayserver.config.CoalescingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collapses concurrent identical idempotent requests into a single upstream call. Requests are identical when
+ * they have the same route, method, path, query and authenticated principal. The first one runs the rest of the
+ * route into a {@link BufferedServerHttpResponse}, and every request arriving before it completes waits for that
+ * call and receives a copy of its status, headers and body, or its error. A backend therefore sees at most one
+ * request per key in flight, while requests arriving after the call completed start a new one.
+ * Requests that joined a call already in flight are counted in {@value #COALESCED_METRIC_NAME}, tagged by route id.
+ */
+@Component
+public class RequestCoalescing {
+
+    public static final String COALESCED_METRIC_NAME = "gateway.requests.coalesced";
+
+    // inside the compression filter, so every request gets its own encoding
+    private static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescing.class);
+
+    private final CoalescingProperties coalescingProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Mono<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescing(CoalescingProperties coalescingProperties, MeterRegistry meterRegistry) {
+        this.coalescingProperties = coalescingProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * The filter is ordered before {@link NettyWriteResponseFilter}, so the upstream body is written to the buffered
+     * response of the call instead of straight to the client.
+     *
+     * @param routeId - id of the route
+     * @return filter coalescing the requests of the route, to add before its circuit breaker
+     */
+    public GatewayFilter forRoute(String routeId) {
+        Counter coalesced = Counter.builder(COALESCED_METRIC_NAME).tag("routeId", routeId).register(meterRegistry);
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (!coalescingProperties.enabled()
+                    || !coalescingProperties.methods().contains(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+            return exchange.getPrincipal()
+                    .map(Principal::getName)
+                    .defaultIfEmpty("")
+                    .flatMap(principal -> {
+                        String key = key(routeId, exchange.getRequest(), principal);
+                        Mono<SharedResponse> call = inFlight.get(key);
+                        if (call != null) {
+                            coalesced.increment();
+                            logger.debug("Request coalesced with the call in flight for {}", key);
+                        } else {
+                            Mono<SharedResponse> upstreamCall = upstreamCall(exchange, chain)
+                                    .doFinally(signal -> inFlight.remove(key))
+                                    .cache();
+                            call = inFlight.putIfAbsent(key, upstreamCall);
+                            if (call == null) {
+                                call = upstreamCall;
+                            } else {
+                                coalesced.increment();
+                            }
+                        }
+                        return call.flatMap(response -> response.writeTo(exchange.getResponse()));
+                    });
+        }, ORDER);
+    }
+
+    private static Mono<SharedResponse> upstreamCall(ServerWebExchange exchange, GatewayFilterChain chain) {
+        BufferedServerHttpResponse response = new BufferedServerHttpResponse(exchange.getResponse().bufferFactory());
+        return chain.filter(exchange.mutate().response(response).build())
+                .then(Mono.fromSupplier(() -> SharedResponse.of(response)))
+                .doFinally(signal -> response.release());
+    }
+
+    private static String key(String routeId, ServerHttpRequest request, String principal) {
+        return routeId + ' ' + request.getMethod() + ' ' + request.getURI().getRawPath() + '?'
+                + request.getURI().getRawQuery() + ' ' + principal;
+    }
+
+    /**
+     * Response of an upstream call, copied to every request that waited for it.
+     */
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+
+        private static SharedResponse of(BufferedServerHttpResponse response) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(response.getHeaders());
+            // each request keeps its own correlation id
+            headers.remove(CorrelationIdFilter.CORRELATION_ID_HEADER);
+            return new SharedResponse(response.getStatusCode(), headers, response.drainBody());
+        }
+
+        private Mono<Void> writeTo(ServerHttpResponse response) {
+            response.setStatusCode(status);
+            response.getHeaders().putAll(headers);
+            if (body.length == 0) {
+                return response.setComplete();
+            }
+            return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+        }
+    }
+}
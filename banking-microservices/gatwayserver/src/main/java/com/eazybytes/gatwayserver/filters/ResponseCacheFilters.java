@@ -0,0 +1,105 @@
+package com.eazybytes.gatwayserver.filters;
+
+import com.eazybytes.gatwayserver.config.ResponseCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cloud.bus.event.RefreshRemoteApplicationEvent;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.cache.LocalResponseCacheGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.cache.LocalResponseCacheProperties;
+import org.springframework.cloud.gateway.filter.factory.cache.ResponseCacheManagerFactory;
+import org.springframework.cloud.gateway.filter.factory.cache.keygenerator.CacheKeyGenerator;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the response cache filter of a route on top of the gateway's Caffeine based local response cache,
+ * which already honours the TTL, the memory budget and the {@code Cache-Control} directives of requests and
+ * responses. Only GETs of the configured paths go through it, with ETag and {@code If-None-Match} support.
+ * Any other request to a route may change what it serves, such as the balance of a card or a loan, so the cache
+ * of the route is emptied once that request is done. This only empties the cache of this gateway instance, and a
+ * GET already in flight when the cache is emptied may still store the response it read before the change, so a
+ * stale response can be served for up to the time to live. All routes share one cache manager so a configuration
+ * refresh, local or over the bus, empties every cache.
+ */
+@Component
+public class ResponseCacheFilters {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheFilters.class);
+    // inside the compression filter, so the cache and the ETag only deal with the identity encoding
+    private static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    // name the gateway's local response cache gives to the cache of a route
+    private static final String ROUTE_CACHE_SUFFIX = "-cache";
+    private static final Set<HttpMethod> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final ResponseCacheProperties responseCacheProperties;
+    private final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    private final LocalResponseCacheGatewayFilterFactory cacheFilterFactory;
+
+    public ResponseCacheFilters(ResponseCacheProperties responseCacheProperties) {
+        this.responseCacheProperties = responseCacheProperties;
+        this.cacheFilterFactory = new LocalResponseCacheGatewayFilterFactory(
+                new ResponseCacheManagerFactory(new CacheKeyGenerator()), responseCacheProperties.timeToLive(),
+                responseCacheProperties.size(), new LocalResponseCacheProperties.RequestOptions(), cacheManager);
+    }
+
+    /**
+     * The filter is ordered before {@link NettyWriteResponseFilter}, so the upstream body goes through the cache and
+     * the ETag decorators, and before the path of the route is rewritten, so paths are matched on their end.
+     *
+     * @param routeId - id of the route, also used to name its cache
+     * @return filter caching the responses of the route
+     */
+    public GatewayFilter forRoute(String routeId) {
+        LocalResponseCacheGatewayFilterFactory.RouteCacheConfiguration config =
+                new LocalResponseCacheGatewayFilterFactory.RouteCacheConfiguration();
+        config.setRouteId(routeId);
+        GatewayFilter cacheFilter = cacheFilterFactory.apply(config);
+        Cache routeCache = cacheManager.getCache(routeId + ROUTE_CACHE_SUFFIX);
+        List<String> paths = responseCacheProperties.paths();
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (!responseCacheProperties.enabled()) {
+                return chain.filter(exchange);
+            }
+            if (!SAFE_METHODS.contains(request.getMethod())) {
+                return chain.filter(exchange).doFinally(signal -> {
+                    routeCache.clear();
+                    logger.debug("Response cache of route {} cleared after a {} request", routeId, request.getMethod());
+                });
+            }
+            if (request.getMethod() != HttpMethod.GET || !isCached(request.getPath().value(), paths)) {
+                return chain.filter(exchange);
+            }
+            return cacheFilter.filter(exchange.mutate().response(new ETagResponseDecorator(exchange.getResponse(),
+                    request.getHeaders().getIfNoneMatch())).build(), chain);
+        }, ORDER);
+    }
+
+    private static boolean isCached(String path, List<String> paths) {
+        for (String cachedPath : paths) {
+            if (path.endsWith(cachedPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @EventListener({RefreshRemoteApplicationEvent.class, EnvironmentChangeEvent.class})
+    public void invalidate() {
+        for (String cacheName : cacheManager.getCacheNames()) {
+            cacheManager.getCache(cacheName).clear();
+        }
+        logger.debug("Response caches cleared after a configuration refresh");
+    }
+}
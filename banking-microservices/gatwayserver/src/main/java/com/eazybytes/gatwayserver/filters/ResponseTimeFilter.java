@@ -0,0 +1,97 @@
+package com.eazybytes.gatwayserver.filters;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures every exchange with {@link System#nanoTime()}: the total time from the first gateway filter until the
+ * response is committed, and the upstream time from the moment the request is routed to the backend. The total
+ * is returned in the {@value #RESPONSE_TIME_HEADER} header and both are recorded in the
+ * {@value #METRIC_NAME} timer, tagged by route id and phase.
+ */
+@Component
+public class ResponseTimeFilter implements GlobalFilter, Ordered {
+
+    public static final String RESPONSE_TIME_HEADER = "X-Response-Time";
+    public static final String METRIC_NAME = "gateway.response.time";
+    static final String TIMING_ATTR = ResponseTimeFilter.class.getName() + ".timing";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteTimers> routeTimers = new ConcurrentHashMap<>();
+
+    public ResponseTimeFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        // the timing doubles as the beforeCommit callback, so it is the only object created per request
+        ExchangeTiming timing = new ExchangeTiming(exchange, System.nanoTime());
+        exchange.getAttributes().put(TIMING_ATTR, timing);
+        exchange.getResponse().beforeCommit(timing);
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private RouteTimers timersFor(String routeId) {
+        RouteTimers timers = routeTimers.get(routeId);
+        if (timers == null) {
+            timers = routeTimers.computeIfAbsent(routeId, id -> new RouteTimers(
+                    Timer.builder(METRIC_NAME).tag("routeId", id).tag("phase", "total").register(meterRegistry),
+                    Timer.builder(METRIC_NAME).tag("routeId", id).tag("phase", "upstream").register(meterRegistry)));
+        }
+        return timers;
+    }
+
+    private record RouteTimers(Timer total, Timer upstream) {
+    }
+
+    final class ExchangeTiming implements Supplier<Mono<Void>> {
+
+        private final ServerWebExchange exchange;
+        private final long start;
+        private long upstreamStart;
+
+        private ExchangeTiming(ServerWebExchange exchange, long start) {
+            this.exchange = exchange;
+            this.start = start;
+        }
+
+        void markUpstreamStart() {
+            upstreamStart = System.nanoTime();
+        }
+
+        @Override
+        public Mono<Void> get() {
+            long end = System.nanoTime();
+            long total = end - start;
+            exchange.getResponse().getHeaders().set(RESPONSE_TIME_HEADER, TimeUnit.NANOSECONDS.toMillis(total) + "ms");
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            if (route != null) {
+                RouteTimers timers = timersFor(route.getId());
+                timers.total().record(total, TimeUnit.NANOSECONDS);
+                if (upstreamStart != 0) {
+                    timers.upstream().record(end - upstreamStart, TimeUnit.NANOSECONDS);
+                }
+            }
+            return Mono.empty();
+        }
+    }
+}
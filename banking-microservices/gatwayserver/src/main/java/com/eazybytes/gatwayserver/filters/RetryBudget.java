@@ -0,0 +1,40 @@
+package com.eazybytes.gatwayserver.filters;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the retries and hedges of a route to a share of its traffic. Every request deposits {@code ratio} of a
+ * token and every retry or hedge withdraws a whole one, so when the upstream fails the gateway sends at most
+ * {@code 1 + ratio} times the incoming load instead of multiplying it by the number of retries.
+ * The balance is kept in thousandths of a token in one {@link AtomicLong}.
+ */
+final class RetryBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int reserve) {
+        this.deposit = Math.round(ratio * TOKEN);
+        this.capacity = reserve * TOKEN;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    void deposit() {
+        balance.accumulateAndGet(deposit, (current, amount) -> Math.min(capacity, current + amount));
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+}
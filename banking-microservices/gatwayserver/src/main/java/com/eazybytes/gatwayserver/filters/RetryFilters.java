@@ -0,0 +1,122 @@
+package com.eazybytes.gatwayserver.filters;
+
+import com.eazybytes.gatwayserver.config.RetryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.RetryGatewayFilterFactory;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.retry.Backoff;
+import reactor.retry.Jitter;
+import reactor.retry.Repeat;
+import reactor.retry.Retry;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Builds the retry and hedging filters of a route. Retries reuse the gateway's retry filter with an exponential
+ * backoff and random jitter, for the configured idempotent methods only, after a connection error, a timeout or
+ * one of the configured upstream statuses. Retries and hedges of a route draw from the same {@link RetryBudget},
+ * so a failing upstream receives a bounded share of extra traffic instead of a retry storm.
+ * Retries and hedges are counted in {@value #RETRY_METRIC_NAME}, tagged by route id and kind.
+ */
+@Component
+public class RetryFilters {
+
+    public static final String RETRY_METRIC_NAME = "gateway.retries";
+
+    private final RetryGatewayFilterFactory retryFilterFactory;
+    private final RetryProperties retryProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    public RetryFilters(RetryGatewayFilterFactory retryFilterFactory, RetryProperties retryProperties,
+                        MeterRegistry meterRegistry) {
+        this.retryFilterFactory = retryFilterFactory;
+        this.retryProperties = retryProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param routeId - id of the route
+     * @return filter retrying the rest of the route, to add before {@link #hedging(String)}
+     */
+    public GatewayFilter retry(String routeId) {
+        RetryBudget budget = budget(routeId);
+        Counter retries = counter(routeId, "retry");
+        Counter exhausted = counter(routeId, "budget_exhausted");
+        Backoff backoff = Backoff.exponential(retryProperties.firstBackoff(), retryProperties.maxBackoff(),
+                retryProperties.factor(), false);
+        Jitter jitter = retryProperties.jitter() > 0 ? Jitter.random(retryProperties.jitter()) : Jitter.noJitter();
+        Repeat<ServerWebExchange> statusRepeat = Repeat.<ServerWebExchange>onlyIf(context -> {
+                    ServerWebExchange exchange = context.applicationContext();
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    return status != null && retryProperties.statuses().stream().anyMatch(status::isSameCodeAs)
+                            && mayRetry(exchange, budget, exhausted);
+                })
+                .doOnRepeat(context -> reset(context.applicationContext(), retries))
+                .backoff(backoff)
+                .jitter(jitter);
+        Retry<ServerWebExchange> exceptionRetry = Retry.<ServerWebExchange>onlyIf(context ->
+                        isRetryable(context.exception()) && mayRetry(context.applicationContext(), budget, exhausted))
+                .doOnRetry(context -> reset(context.applicationContext(), retries))
+                .retryMax(retryProperties.retries())
+                .backoff(backoff)
+                .jitter(jitter);
+        GatewayFilter retryFilter = retryFilterFactory.apply(routeId, statusRepeat, exceptionRetry);
+        return (exchange, chain) -> {
+            budget.deposit();
+            return retryFilter.filter(exchange, chain);
+        };
+    }
+
+    /**
+     * @param routeId - id of the route
+     * @return filter hedging each attempt of the rest of the route, a no-op unless hedging is enabled
+     */
+    public GatewayFilter hedging(String routeId) {
+        return new HedgingFilter(retryProperties.hedging(), retryProperties.methods(), budget(routeId),
+                counter(routeId, "hedge"), counter(routeId, "hedge_won"));
+    }
+
+    private boolean mayRetry(ServerWebExchange exchange, RetryBudget budget, Counter exhausted) {
+        Integer iteration = exchange.getAttribute(RetryGatewayFilterFactory.RETRY_ITERATION_KEY);
+        if (!retryProperties.methods().contains(exchange.getRequest().getMethod())
+                || (iteration != null && iteration >= retryProperties.retries())) {
+            return false;
+        }
+        if (!budget.tryWithdraw()) {
+            exhausted.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void reset(ServerWebExchange exchange, Counter retries) {
+        retries.increment();
+        retryFilterFactory.reset(exchange);
+    }
+
+    private static boolean isRetryable(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RetryBudget budget(String routeId) {
+        return budgets.computeIfAbsent(routeId,
+                key -> new RetryBudget(retryProperties.budgetRatio(), retryProperties.budgetReserve()));
+    }
+
+    private Counter counter(String routeId, String kind) {
+        return Counter.builder(RETRY_METRIC_NAME).tag("routeId", routeId).tag("kind", kind).register(meterRegistry);
+    }
+}
@@ -0,0 +1,30 @@
+package com.eazybytes.gatwayserver.filters;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs right before the routing filter to mark when the request leaves for the backend,
+ * which gives the upstream part of the timing recorded by {@link ResponseTimeFilter}.
+ */
+@Component
+public class UpstreamTimeFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ResponseTimeFilter.ExchangeTiming timing = exchange.getAttribute(ResponseTimeFilter.TIMING_ATTR);
+        if (timing != null) {
+            timing.markUpstreamStart();
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+}
@@ -0,0 +1,34 @@
+package com.eazybytes.gatwayserver.loadbalancer;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs right before the load balancer filter, which completes the load balancer lifecycle on success and error
+ * but not when the exchange is cancelled, by a hedge that won, a timeout or a client that went away. Ends the
+ * {@link LatencyAwareLoadBalancer.InFlightRequest} of the exchange on every terminal signal instead, so a
+ * cancelled request does not stay in flight on its instance forever.
+ */
+@Component
+public class InFlightReleaseFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange).doFinally(signal -> {
+            if (exchange.getAttributes().get(LatencyAwareLoadBalancer.IN_FLIGHT_ATTR)
+                    instanceof LatencyAwareLoadBalancer.InFlightRequest inFlightRequest) {
+                inFlightRequest.cancel();
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+    }
+}
@@ -0,0 +1,274 @@
+package com.eazybytes.gatwayserver.loadbalancer;
+
+import com.eazybytes.gatwayserver.filters.HedgingFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Power of two choices over a peak EWMA of latency: two instances are drawn at random and the request goes
+ * to the one with the lower {@code latency * (in-flight requests + 1)}. A slow response raises the latency of
+ * its instance at once, fast ones lower it exponentially, and the latency of an idle instance decays so a
+ * recovered pod is probed again. New instances start at a default latency instead of zero, so a pod that is
+ * still warming up is not flooded. As a {@link LoadBalancerLifecycle} it learns from the requests sent through
+ * it by the {@code lb://} routes. The hedge of a request never goes to the instance serving the first attempt,
+ * as long as another one is available. The gateway never completes the lifecycle of a cancelled request, so
+ * each request started through a gateway exchange leaves an {@link InFlightRequest} in its attributes, which
+ * {@link InFlightReleaseFilter} ends whatever the signal the exchange terminates with.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyAwareLoadBalancer.class);
+
+    /**
+     * Exchange attribute holding the {@link InFlightRequest} of the last instance chosen for the exchange.
+     */
+    static final String IN_FLIGHT_ATTR = LatencyAwareLoadBalancer.class.getName() + ".inFlight";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final long decayNanos;
+    private final long defaultLatencyNanos;
+    private final long failurePenaltyNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId, Duration decayTime, Duration defaultLatency,
+                                    Duration failurePenalty) {
+        this(serviceInstanceListSupplierProvider, serviceId, decayTime, defaultLatency, failurePenalty, System::nanoTime);
+    }
+
+    LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                             String serviceId, Duration decayTime, Duration defaultLatency, Duration failurePenalty,
+                             LongSupplier nanoClock) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.decayNanos = decayTime.toNanos();
+        this.defaultLatencyNanos = defaultLatency.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        Map<String, Object> attributes = attributes(request);
+        String excludedInstance = attributes != null ? (String) attributes.get(HedgingFilter.EXCLUDED_INSTANCE_ATTR) : null;
+        return supplier.get(request).next().map(instances -> choose(excluding(instances, excludedInstance)));
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        if (stats.size() > 2 * instances.size()) {
+            forgetRemovedInstances(instances);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance firstInstance = instances.get(first);
+        ServiceInstance secondInstance = instances.get(second);
+        long now = nanoClock.getAsLong();
+        return new DefaultResponse(stats(firstInstance).cost(now) <= stats(secondInstance).cost(now)
+                ? firstInstance : secondInstance);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        if (request.getContext() instanceof TimedRequestContext timedContext) {
+            timedContext.setRequestStartTime(now);
+        }
+        InstanceStats instanceStats = stats(lbResponse.getServer());
+        instanceStats.inFlight.incrementAndGet();
+        Map<String, Object> attributes = attributes(request);
+        if (attributes != null) {
+            attributes.put(IN_FLIGHT_ATTR, new InFlightRequest(instanceStats, now));
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD || lbResponse == null
+                || !lbResponse.hasServer()) {
+            return;
+        }
+        Map<String, Object> attributes = attributes(completionContext.getLoadBalancerRequest());
+        InstanceStats instanceStats;
+        if (attributes != null && attributes.get(IN_FLIGHT_ATTR) instanceof InFlightRequest inFlightRequest) {
+            if (!inFlightRequest.end()) {
+                return;
+            }
+            instanceStats = inFlightRequest.instanceStats;
+        } else {
+            instanceStats = stats(lbResponse.getServer());
+            instanceStats.inFlight.decrementAndGet();
+        }
+        if (completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext timedContext
+                && timedContext.getRequestStartTime() != 0) {
+            long now = nanoClock.getAsLong();
+            long latency = now - timedContext.getRequestStartTime();
+            if (completionContext.status() == CompletionContext.Status.FAILED) {
+                latency = Math.max(latency, failurePenaltyNanos);
+            }
+            instanceStats.observe(latency, now);
+        }
+    }
+
+    int inFlight(ServiceInstance instance) {
+        return stats(instance).inFlight.get();
+    }
+
+    private static Map<String, Object> attributes(Request<?> request) {
+        return request != null && request.getContext() instanceof RequestDataContext context
+                && context.getClientRequest() != null ? context.getClientRequest().getAttributes() : null;
+    }
+
+    private static List<ServiceInstance> excluding(List<ServiceInstance> instances, String excludedInstance) {
+        if (excludedInstance == null || instances.size() < 2) {
+            return instances;
+        }
+        List<ServiceInstance> candidates = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (!excludedInstance.equals(instance.getInstanceId())) {
+                candidates.add(instance);
+            }
+        }
+        return candidates.isEmpty() ? instances : candidates;
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), key -> new InstanceStats(defaultLatencyNanos, nanoClock.getAsLong()));
+    }
+
+    private void forgetRemovedInstances(List<ServiceInstance> instances) {
+        Set<String> keys = new HashSet<>();
+        for (ServiceInstance instance : instances) {
+            keys.add(key(instance));
+        }
+        stats.keySet().retainAll(keys);
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getInstanceId() != null ? instance.getInstanceId() : instance.getHost() + ':' + instance.getPort();
+    }
+
+    /**
+     * A request sent to an instance, counted as in flight until it is ended once, by its completion or by the
+     * cancellation of its exchange.
+     */
+    final class InFlightRequest {
+
+        private final InstanceStats instanceStats;
+        private final long startedAt;
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        private InFlightRequest(InstanceStats instanceStats, long startedAt) {
+            this.instanceStats = instanceStats;
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * Ends a request the load balancer will not hear about anymore. Its latency is unknown, but at least
+         * the time it has been running, which is enough to steer away from an instance that timed out.
+         */
+        void cancel() {
+            if (end()) {
+                long now = nanoClock.getAsLong();
+                instanceStats.observeAtLeast(now - startedAt, now);
+            }
+        }
+
+        private boolean end() {
+            if (!ended.compareAndSet(false, true)) {
+                return false;
+            }
+            instanceStats.inFlight.decrementAndGet();
+            return true;
+        }
+    }
+
+    /**
+     * Peak EWMA of the latency of one instance and its number of in-flight requests.
+     */
+    private final class InstanceStats {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private long latencyNanos;
+        private long updatedAt;
+
+        private InstanceStats(long latencyNanos, long updatedAt) {
+            this.latencyNanos = latencyNanos;
+            this.updatedAt = updatedAt;
+        }
+
+        private synchronized void observe(long latency, long now) {
+            if (latency > latencyNanos) {
+                latencyNanos = latency;
+            } else {
+                double weight = Math.exp(-(double) (now - updatedAt) / decayNanos);
+                latencyNanos = (long) (latencyNanos * weight + latency * (1 - weight));
+            }
+            updatedAt = now;
+        }
+
+        private synchronized void observeAtLeast(long latency, long now) {
+            if (latency > latencyNanos) {
+                latencyNanos = latency;
+                updatedAt = now;
+            }
+        }
+
+        private double cost(long now) {
+            double decayed;
+            synchronized (this) {
+                decayed = latencyNanos * Math.exp(-(double) Math.max(0, now - updatedAt) / decayNanos);
+            }
+            return decayed * (Math.max(0, inFlight.get()) + 1);
+        }
+    }
+}
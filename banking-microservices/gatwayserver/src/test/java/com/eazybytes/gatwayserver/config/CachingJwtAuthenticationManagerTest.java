@@ -0,0 +1,124 @@
+package com.eazybytes.gatwayserver.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtReactiveAuthenticationManager;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the gateway token validation against a local JWK stub instead of Keycloak.
+ */
+class CachingJwtAuthenticationManagerTest {
+
+    private final AtomicInteger jwkFetches = new AtomicInteger();
+    private final AtomicReference<JWKSet> publishedKeys = new AtomicReference<>();
+    private RSAKey signingKey;
+    private PrefetchedJwkSet prefetchedJwkSet;
+    private CachingJwtAuthenticationManager authenticationManager;
+
+    @BeforeEach
+    void setUp() throws JOSEException {
+        signingKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        publishedKeys.set(new JWKSet(signingKey.toPublicJWK()));
+        prefetchedJwkSet = new PrefetchedJwkSet(() -> Mono.fromSupplier(() -> {
+            jwkFetches.incrementAndGet();
+            return publishedKeys.get().toString();
+        }), Duration.ofHours(1), Duration.ZERO);
+        prefetchedJwkSet.start();
+
+        JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
+        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(new KeycloakRoleConverter(1024));
+        JwtReactiveAuthenticationManager jwtAuthenticationManager =
+                new JwtReactiveAuthenticationManager(NimbusReactiveJwtDecoder.withJwkSource(prefetchedJwkSet).build());
+        jwtAuthenticationManager.setJwtAuthenticationConverter(
+                new ReactiveJwtAuthenticationConverterAdapter(jwtAuthenticationConverter));
+        authenticationManager = new CachingJwtAuthenticationManager(jwtAuthenticationManager, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        prefetchedJwkSet.stop();
+    }
+
+    @Test
+    void validatesATokenOnceAndServesItFromTheCache() throws JOSEException {
+        String token = token(signingKey, List.of("LOANS", "CARDS"));
+
+        Authentication first = authenticate(token);
+        Authentication second = authenticate(token);
+
+        assertSame(first, second);
+        assertEquals(List.of("ROLE_LOANS", "ROLE_CARDS"),
+                first.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertEquals(1, jwkFetches.get());
+    }
+
+    @Test
+    void sharesTheAuthoritiesOfTokensWithTheSameRoles() throws JOSEException {
+        Authentication first = authenticate(token(signingKey, List.of("ACCOUNTS")));
+        Authentication second = authenticate(token(signingKey, List.of("ACCOUNTS")));
+
+        assertSame(first.getAuthorities().iterator().next(), second.getAuthorities().iterator().next());
+    }
+
+    @Test
+    void picksUpARotatedKeyInTheBackground() throws Exception {
+        authenticate(token(signingKey, List.of("LOANS")));
+        RSAKey rotatedKey = new RSAKeyGenerator(2048).keyID("key-2").generate();
+        publishedKeys.set(new JWKSet(List.of(signingKey.toPublicJWK(), rotatedKey.toPublicJWK())));
+        String rotatedToken = token(rotatedKey, List.of("LOANS"));
+
+        // the unknown key is not fetched while the request waits, the request fails and triggers a refresh
+        assertThrows(RuntimeException.class, () -> authenticate(rotatedToken));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (jwkFetches.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals("subject", authenticate(rotatedToken).getName());
+    }
+
+    private Authentication authenticate(String token) {
+        return authenticationManager.authenticate(new BearerTokenAuthenticationToken(token)).block();
+    }
+
+    private static String token(RSAKey key, List<String> roles) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("subject")
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+                .claim("realm_access", Map.of("roles", roles))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,104 @@
+package com.eazybytes.gatwayserver.filters;
+
+import com.eazybytes.gatwayserver.config.CompressionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionFilterTest {
+
+    private static final byte[] LARGE_BODY = "{\"loanNumber\":\"100000000001\",\"outstandingAmount\":100000}".repeat(50)
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final CompressionFilter compressionFilter = new CompressionFilter(new CompressionProperties(true,
+            DataSize.ofKilobytes(1), 6, List.of(MediaType.APPLICATION_JSON)), new SimpleMeterRegistry());
+
+    @Test
+    void acceptsGzipUnlessItsQualityIsZero() {
+        assertTrue(CompressionFilter.acceptsGzip(List.of("gzip")));
+        assertTrue(CompressionFilter.acceptsGzip(List.of("deflate, GZIP;q=0.8")));
+        assertTrue(CompressionFilter.acceptsGzip(List.of("br", "*")));
+        assertTrue(CompressionFilter.acceptsGzip(List.of("gzip; q=0.001")));
+        assertFalse(CompressionFilter.acceptsGzip(null));
+        assertFalse(CompressionFilter.acceptsGzip(List.of("br, deflate")));
+        assertFalse(CompressionFilter.acceptsGzip(List.of("gzip;q=0")));
+        assertFalse(CompressionFilter.acceptsGzip(List.of("gzip; q=0.000")));
+        assertFalse(CompressionFilter.acceptsGzip(List.of("gzipped")));
+    }
+
+    @Test
+    void compressesALargeResponseAndWeakensItsETag() throws IOException {
+        MockServerWebExchange exchange = exchange("gzip");
+
+        compressionFilter.filter(exchange, backend(LARGE_BODY, "\"v1\"")).block();
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, headers.getFirst(HttpHeaders.VARY));
+        assertEquals("W/\"v1\"", headers.getETag());
+        DataBuffer buffer = DataBufferUtils.join(exchange.getResponse().getBody()).block();
+        byte[] body = new byte[buffer.readableByteCount()];
+        buffer.read(body);
+        assertEquals(body.length, headers.getContentLength());
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertArrayEquals(LARGE_BODY, input.readAllBytes());
+        }
+    }
+
+    @Test
+    void leavesAResponseBelowTheMinimumSizeAsItIs() {
+        MockServerWebExchange exchange = exchange("gzip");
+
+        compressionFilter.filter(exchange, backend("{}".getBytes(StandardCharsets.UTF_8), "\"v1\"")).block();
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertNull(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"v1\"", headers.getETag());
+        assertEquals("{}", exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void leavesTheResponseOfAClientRefusingGzipAsItIs() {
+        MockServerWebExchange exchange = exchange("gzip;q=0");
+
+        compressionFilter.filter(exchange, backend(LARGE_BODY, "\"v1\"")).block();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(new String(LARGE_BODY, StandardCharsets.UTF_8), exchange.getResponse().getBodyAsString().block());
+    }
+
+    private static MockServerWebExchange exchange(String acceptEncoding) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/eazybank/loans/api/fetch")
+                .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+    }
+
+    private static GatewayFilterChain backend(byte[] body, String eTag) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            exchange.getResponse().getHeaders().setETag(eTag);
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+        };
+    }
+}
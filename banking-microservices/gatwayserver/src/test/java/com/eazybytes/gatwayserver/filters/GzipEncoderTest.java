@@ -0,0 +1,61 @@
+package com.eazybytes.gatwayserver.filters;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GzipEncoderTest {
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    @Test
+    void producesAGzipMemberThatGzipInputStreamReadsBack() throws IOException {
+        byte[] json = "{\"mobileNumber\":\"4354437687\",\"availableAmount\":100000}".repeat(200)
+                .getBytes(StandardCharsets.UTF_8);
+
+        byte[] gzip = encode(json, Deflater.DEFAULT_COMPRESSION);
+
+        assertArrayEquals(json, gunzip(gzip));
+        assertTrue(gzip.length < json.length / 10, "compressed to " + gzip.length + " bytes");
+    }
+
+    @Test
+    void roundTripsEmptyAndIncompressibleInputsAtEveryLevel() throws IOException {
+        byte[] random = new byte[100_000];
+        new Random(42).nextBytes(random);
+        for (int level = 1; level <= 9; level++) {
+            // several times the scratch chunk, and the encoder of the thread is reused between calls
+            assertArrayEquals(random, gunzip(encode(random, level)));
+            assertArrayEquals(new byte[0], gunzip(encode(new byte[0], level)));
+        }
+    }
+
+    private byte[] encode(byte[] input, int level) {
+        DataBuffer buffer = GzipEncoder.encode(input, bufferFactory, level);
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    // checks the header, the CRC-32 and the ISIZE trailer on the way
+    private static byte[] gunzip(byte[] gzip) throws IOException {
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return input.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.eazybytes.gatwayserver.filters;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Goes through the real routes, so each attempt is sent by the gateway's own routing filter and the answer is
+ * the body read from the winning attempt's connection.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"gateway.response-cache.enabled=false", "gateway.coalescing.enabled=false",
+                "gateway.retry.hedging.enabled=true", "gateway.retry.hedging.min-samples=5",
+                "gateway.retry.hedging.min-delay=20ms", "gateway.retry.hedging.max-delay=200ms"})
+class HedgingFilterTest {
+
+    private static final StubBackend BACKEND = new StubBackend();
+    private static final String FETCH = "/eazybank/cards/api/fetch?mobileNumber=4354437687";
+
+    @DynamicPropertySource
+    static void backend(DynamicPropertyRegistry registry) {
+        BACKEND.registerServices(registry);
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @AfterEach
+    void tearDown() {
+        BACKEND.reset();
+    }
+
+    @Test
+    void aSlowRequestIsAnsweredWithTheBodyOfTheFasterHedge() throws InterruptedException {
+        BACKEND.replies(uri -> StubBackend.Reply.ok("{\"cardNumber\":\"100000000001\"}"));
+        for (int i = 0; i < 5; i++) {
+            webTestClient.get().uri(FETCH).exchange()
+                    .expectStatus().isOk()
+                    .expectBody(String.class).isEqualTo("{\"cardNumber\":\"100000000001\"}");
+        }
+        // the latency percentile of the route is refreshed at most once per second
+        Thread.sleep(1100);
+
+        BACKEND.replies(uri -> BACKEND.calls() == 6
+                ? new StubBackend.Reply(200, "{\"attempt\":\"primary\"}", Duration.ofSeconds(2))
+                : StubBackend.Reply.ok("{\"attempt\":\"hedge\"}"));
+        long start = System.nanoTime();
+        webTestClient.get().uri(FETCH).exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("{\"attempt\":\"hedge\"}");
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+        assertEquals(7, BACKEND.calls());
+    }
+}
@@ -0,0 +1,61 @@
+package com.eazybytes.gatwayserver.filters;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+
+/**
+ * Goes through the real routes, so the recorded response is the one written by the gateway's own write filter
+ * and the stale answer is the one of the circuit breaker fallback.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"gateway.response-cache.enabled=false"})
+class LastGoodResponsesTest {
+
+    private static final StubBackend BACKEND = new StubBackend();
+    private static final String FETCH = "/eazybank/accounts/api/fetch?mobileNumber=4354437687";
+
+    @DynamicPropertySource
+    static void backend(DynamicPropertyRegistry registry) {
+        BACKEND.registerServices(registry);
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @AfterEach
+    void tearDown() {
+        BACKEND.reset();
+    }
+
+    @Test
+    void theFallbackAnswersWithTheLastGoodResponseWhileTheBackendIsUnavailable() {
+        BACKEND.replies(uri -> StubBackend.Reply.ok("{\"accountNumber\":1000000001}"));
+        webTestClient.get().uri(FETCH).exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.WARNING)
+                .expectBody(String.class).isEqualTo("{\"accountNumber\":1000000001}");
+
+        BACKEND.replies(uri -> new StubBackend.Reply(503, "{}", Duration.ZERO));
+        webTestClient.get().uri(FETCH).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches(HttpHeaders.WARNING, "110 .*")
+                .expectBody(String.class).isEqualTo("{\"accountNumber\":1000000001}");
+    }
+
+    @Test
+    void theFallbackAnswersWithServiceUnavailableWithoutALastGoodResponse() {
+        BACKEND.replies(uri -> new StubBackend.Reply(503, "{}", Duration.ZERO));
+
+        webTestClient.get().uri("/eazybank/loans/api/fetch?mobileNumber=9999999999").exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().doesNotExist(HttpHeaders.WARNING);
+    }
+}
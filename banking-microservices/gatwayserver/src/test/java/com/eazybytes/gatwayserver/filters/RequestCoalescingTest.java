@@ -0,0 +1,69 @@
+package com.eazybytes.gatwayserver.filters;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Goes through the real routes, so the coalesced call is written by the gateway's own routing and write filters.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "gateway.response-cache.enabled=false")
+class RequestCoalescingTest {
+
+    private static final StubBackend BACKEND = new StubBackend();
+
+    @DynamicPropertySource
+    static void backend(DynamicPropertyRegistry registry) {
+        BACKEND.registerServices(registry);
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @LocalServerPort
+    private int port;
+
+    @AfterEach
+    void tearDown() {
+        BACKEND.reset();
+    }
+
+    @Test
+    void aCoalescedRequestReceivesTheBodyOfTheUpstreamResponse() {
+        BACKEND.replies(uri -> StubBackend.Reply.ok("{\"loanNumber\":\"100000000001\"}"));
+
+        webTestClient.get().uri("/eazybank/loans/api/fetch?mobileNumber=4354437687").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("{\"loanNumber\":\"100000000001\"}");
+    }
+
+    @Test
+    void concurrentIdenticalRequestsShareOneUpstreamCall() {
+        BACKEND.replies(uri -> new StubBackend.Reply(200, "{\"cardNumber\":\"100000000001\"}",
+                Duration.ofMillis(500)));
+
+        WebClient webClient = WebClient.create("http://localhost:" + port);
+        List<String> bodies = Flux.range(0, 5)
+                .flatMap(i -> webClient.get().uri("/eazybank/cards/api/fetch?mobileNumber=4354437687")
+                        .retrieve().bodyToMono(String.class))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(5, bodies.size());
+        bodies.forEach(body -> assertEquals("{\"cardNumber\":\"100000000001\"}", body));
+        assertEquals(1, BACKEND.calls());
+    }
+}
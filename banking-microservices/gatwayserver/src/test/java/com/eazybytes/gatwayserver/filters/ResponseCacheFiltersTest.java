@@ -0,0 +1,97 @@
+package com.eazybytes.gatwayserver.filters;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Goes through the real routes, so the cached responses are those written by the gateway's own write filter.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ResponseCacheFiltersTest {
+
+    private static final StubBackend BACKEND = new StubBackend();
+    private static final String FETCH = "/eazybank/cards/api/fetch?mobileNumber=4354437687";
+
+    @DynamicPropertySource
+    static void backend(DynamicPropertyRegistry registry) {
+        BACKEND.registerServices(registry);
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ResponseCacheFilters responseCacheFilters;
+
+    @MockitoBean
+    private ReactiveJwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        BACKEND.replies(uri -> StubBackend.Reply.ok("{\"availableAmount\":" + BACKEND.calls() + "}"));
+        when(jwtDecoder.decode(anyString())).thenReturn(Mono.just(Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("card-holder")
+                .claim("realm_access", Map.of("roles", List.of("CARDS")))
+                .expiresAt(Instant.now().plusSeconds(300))
+                .build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        BACKEND.reset();
+        responseCacheFilters.invalidate();
+    }
+
+    @Test
+    void servesARepeatedFetchFromTheCacheWithAnETag() {
+        String eTag = webTestClient.get().uri(FETCH).exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("{\"availableAmount\":1}")
+                .returnResult().getResponseHeaders().getETag();
+
+        webTestClient.get().uri(FETCH).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, eTag)
+                .expectBody(String.class).isEqualTo("{\"availableAmount\":1}");
+        webTestClient.get().uri(FETCH).header(HttpHeaders.IF_NONE_MATCH, eTag).exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        assertEquals(1, BACKEND.calls());
+    }
+
+    @Test
+    void aMutatingRequestEmptiesTheCacheOfItsRoute() {
+        webTestClient.get().uri(FETCH).exchange().expectBody(String.class).isEqualTo("{\"availableAmount\":1}");
+        webTestClient.get().uri("/eazybank/loans/api/fetch?mobileNumber=4354437687").exchange()
+                .expectBody(String.class).isEqualTo("{\"availableAmount\":2}");
+
+        webTestClient.post().uri("/eazybank/cards/api/authorize").header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .exchange().expectStatus().isOk();
+
+        webTestClient.get().uri(FETCH).exchange().expectBody(String.class).isEqualTo("{\"availableAmount\":4}");
+        webTestClient.get().uri("/eazybank/loans/api/fetch?mobileNumber=4354437687").exchange()
+                .expectBody(String.class).isEqualTo("{\"availableAmount\":2}");
+        assertEquals(4, BACKEND.calls());
+    }
+}
@@ -0,0 +1,70 @@
+package com.eazybytes.gatwayserver.filters;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Backend the gateway routes of a test reach through the real load balancer, routing and write filters: the
+ * {@code ACCOUNTS}, {@code LOANS} and {@code CARDS} services are all this one server.
+ */
+final class StubBackend {
+
+    private final DisposableServer server;
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile Function<String, Reply> replies = uri -> Reply.ok("{}");
+
+    StubBackend() {
+        this.server = HttpServer.create().host("localhost").port(0)
+                .handle((request, response) -> {
+                    calls.incrementAndGet();
+                    Reply reply = replies.apply(request.uri());
+                    return Mono.delay(reply.delay())
+                            .then(response.status(reply.status())
+                                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                    .sendString(Mono.just(reply.body()))
+                                    .then());
+                })
+                .bindNow();
+    }
+
+    void registerServices(DynamicPropertyRegistry registry) {
+        registry.add("eureka.client.enabled", () -> "false");
+        for (String serviceId : new String[]{"ACCOUNTS", "LOANS", "CARDS"}) {
+            registry.add("spring.cloud.discovery.client.simple.instances[" + serviceId + "][0].uri",
+                    () -> "http://localhost:" + server.port());
+            registry.add("spring.cloud.discovery.client.simple.instances[" + serviceId + "][0].instance-id",
+                    () -> serviceId.toLowerCase() + "-1");
+        }
+    }
+
+    /**
+     * @param replies - reply to each request, by request uri
+     */
+    void replies(Function<String, Reply> replies) {
+        this.replies = replies;
+    }
+
+    int calls() {
+        return calls.get();
+    }
+
+    void reset() {
+        calls.set(0);
+        replies = uri -> Reply.ok("{}");
+    }
+
+    record Reply(int status, String body, Duration delay) {
+
+        static Reply ok(String body) {
+            return new Reply(200, body, Duration.ZERO);
+        }
+    }
+}
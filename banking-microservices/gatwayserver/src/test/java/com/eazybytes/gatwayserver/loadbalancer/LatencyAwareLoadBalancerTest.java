@@ -0,0 +1,127 @@
+package com.eazybytes.gatwayserver.loadbalancer;
+
+import com.eazybytes.gatwayserver.filters.HedgingFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Drives the load balancer lifecycle the way the gateway load balancer filter does, on a virtual clock.
+ */
+class LatencyAwareLoadBalancerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ServiceInstance first = instance("loans-1");
+    private final ServiceInstance second = instance("loans-2");
+    private final ServiceInstance third = instance("loans-3");
+    private final LatencyAwareLoadBalancer loadBalancer = loadBalancer(first, second);
+    private final InFlightReleaseFilter inFlightReleaseFilter = new InFlightReleaseFilter();
+
+    @Test
+    void theHedgeOfARequestGoesToAnotherInstance() {
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(first, second, third);
+        // the excluded instance would otherwise win every draw, being the only one without requests in flight
+        loadBalancer.onStartRequest(new DefaultRequest<>(new RequestDataContext()), new DefaultResponse(second));
+        loadBalancer.onStartRequest(new DefaultRequest<>(new RequestDataContext()), new DefaultResponse(third));
+        for (int i = 0; i < 50; i++) {
+            ServiceInstance chosen = loadBalancer.choose(hedgeOf(first)).block().getServer();
+            assertNotEquals(first, chosen);
+        }
+    }
+
+    @Test
+    void theHedgeOfARequestGoesToTheSameInstanceWhenItIsTheOnlyOne() {
+        LatencyAwareLoadBalancer loadBalancer = loadBalancer(first);
+
+        assertSame(first, loadBalancer.choose(hedgeOf(first)).block().getServer());
+    }
+
+    @Test
+    void aCancelledRequestIsNoLongerInFlight() {
+        Disposable cancelled = inFlightReleaseFilter.filter(exchange(), pendingOn(first)).subscribe();
+        inFlightReleaseFilter.filter(exchange(), pendingOn(second)).subscribe();
+        assertEquals(1, loadBalancer.inFlight(first));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        cancelled.dispose();
+
+        assertEquals(0, loadBalancer.inFlight(first));
+        assertEquals(1, loadBalancer.inFlight(second));
+        // the cancelled request ran for a second, ten times the latency of the instance still busy
+        assertSame(second, loadBalancer.choose(List.of(first, second)).getServer());
+    }
+
+    @Test
+    void aCompletedRequestIsReleasedOnce() {
+        inFlightReleaseFilter.filter(exchange(), completedOn(first)).block();
+        inFlightReleaseFilter.filter(exchange(), pendingOn(first)).subscribe();
+
+        assertEquals(1, loadBalancer.inFlight(first));
+    }
+
+    private GatewayFilterChain pendingOn(ServiceInstance instance) {
+        return exchange -> {
+            start(exchange, instance);
+            return Mono.never();
+        };
+    }
+
+    private GatewayFilterChain completedOn(ServiceInstance instance) {
+        return exchange -> {
+            Request<Object> request = start(exchange, instance);
+            return Mono.<Void>empty().doOnSuccess(done -> loadBalancer.onComplete(new CompletionContext<>(
+                    CompletionContext.Status.SUCCESS, request, new DefaultResponse(instance))));
+        };
+    }
+
+    private Request<Object> start(ServerWebExchange exchange, ServiceInstance instance) {
+        Request<Object> request = new DefaultRequest<>(new RequestDataContext(
+                new RequestData(exchange.getRequest(), exchange.getAttributes())));
+        Response<ServiceInstance> response = new DefaultResponse(instance);
+        loadBalancer.onStartRequest(request, response);
+        return request;
+    }
+
+    private LatencyAwareLoadBalancer loadBalancer(ServiceInstance... instances) {
+        return new LatencyAwareLoadBalancer(ServiceInstanceListSuppliers.toProvider("loans", instances), "loans",
+                Duration.ofSeconds(10), Duration.ofMillis(100), Duration.ofSeconds(1), clock::get);
+    }
+
+    private static Request<RequestDataContext> hedgeOf(ServiceInstance instance) {
+        MockServerWebExchange exchange = exchange();
+        exchange.getAttributes().put(HedgingFilter.EXCLUDED_INSTANCE_ATTR, instance.getInstanceId());
+        return new DefaultRequest<>(new RequestDataContext(new RequestData(exchange.getRequest(),
+                exchange.getAttributes())));
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/eazybank/loans/api/fetch"));
+    }
+
+    private static ServiceInstance instance(String instanceId) {
+        return new DefaultServiceInstance(instanceId, "loans", instanceId, 8090, false);
+    }
+}
@@ -1,5 +1,6 @@
 package com.eazybytes.loans;
 
+import com.eazybytes.loans.config.RepaymentBatchProperties;
 import com.eazybytes.loans.dto.LoansContactInfoDto;
 import io.swagger.v3.oas.annotations.ExternalDocumentation;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
@@ -15,7 +16,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 /*@ComponentScans({ @ComponentScan("com.eazybytes.loans.controller") })
 @EnableJpaRepositories("com.eazybytes.loans.repository")
 @EntityScan("com.eazybytes.loans.model")*/
-@EnableConfigurationProperties(value = LoansContactInfoDto.class)
+@EnableConfigurationProperties({LoansContactInfoDto.class, RepaymentBatchProperties.class})
 @EnableJpaAuditing(auditorAwareRef = "auditAwareImpl")
 @OpenAPIDefinition(
 		info = @Info(
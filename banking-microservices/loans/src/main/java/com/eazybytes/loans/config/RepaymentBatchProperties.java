@@ -0,0 +1,19 @@
+package com.eazybytes.loans.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * End of day processing of repayment files.
+ *
+ * @param directory - directory the repayment files are dropped into, only files inside it can be processed
+ * @param chunkSize - repayment records applied and checkpointed per transaction
+ */
+@ConfigurationProperties(prefix = "repayment-batch")
+public record RepaymentBatchProperties(
+        @DefaultValue("repayments") Path directory,
+        @DefaultValue("1000") int chunkSize
+) {
+}
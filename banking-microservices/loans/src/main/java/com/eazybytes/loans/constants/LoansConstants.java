@@ -15,6 +15,13 @@ public final class LoansConstants {
     public static final String  STATUS_417 = "417";
     public static final String  MESSAGE_417_UPDATE= "Update operation failed. Please try again or contact Dev team";
     public static final String  MESSAGE_417_DELETE= "Delete operation failed. Please try again or contact Dev team";
+    public static final int  FETCH_BATCH_MAX_SIZE = 1000;
+    // mobile numbers bound to one IN list, well below the placeholder limits of the JDBC drivers
+    public static final int  FETCH_BATCH_CHUNK_SIZE = 500;
+    public static final String  REPAYMENT_BATCH_RUNNING = "RUNNING";
+    public static final String  REPAYMENT_BATCH_COMPLETED = "COMPLETED";
+    // 50 years of monthly installments
+    public static final int  SCHEDULE_MAX_TENOR_MONTHS = 600;
     // public static final String  STATUS_500 = "500";
     // public static final String  MESSAGE_500 = "An error occurred. Please try again or contact Dev team";
 
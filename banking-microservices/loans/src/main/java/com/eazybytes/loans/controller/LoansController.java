@@ -4,8 +4,14 @@ import com.eazybytes.loans.constants.LoansConstants;
 import com.eazybytes.loans.dto.ErrorResponseDto;
 import com.eazybytes.loans.dto.LoansContactInfoDto;
 import com.eazybytes.loans.dto.LoansDto;
+import com.eazybytes.loans.dto.RepaymentBatchDto;
 import com.eazybytes.loans.dto.ResponseDto;
+import com.eazybytes.loans.schedule.AmortizationMethod;
+import com.eazybytes.loans.schedule.AmortizationSchedule;
+import com.eazybytes.loans.schedule.ScheduleJsonWriter;
 import com.eazybytes.loans.service.ILoansService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,7 +19,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +36,9 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 /**
  * @author Eazy Bytes
@@ -50,6 +65,8 @@ public class LoansController {
     private Environment environment;
     @Autowired
     private LoansContactInfoDto loansContactInfoDto;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Operation(
             summary = "Create Loan REST API",
@@ -108,6 +125,78 @@ public class LoansController {
         return ResponseEntity.status(HttpStatus.OK).body(loansDto);
     }
 
+    @Operation(
+            summary = "Fetch Loan Schedule REST API",
+            description = "REST API to fetch the amortization schedule of the outstanding amount of a loan " +
+                    "based on a mobile number, at a given annual rate over a given tenor"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @GetMapping("/schedule")
+    public ResponseEntity<StreamingResponseBody> fetchLoanSchedule(
+            @RequestHeader("eazybank-correlation-id") String correlationId,
+            @RequestParam
+            @Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits")
+            String mobileNumber,
+            @RequestParam
+            @DecimalMin(value = "0.0", message = "Annual rate should be equal or greater than zero")
+            @DecimalMax(value = "100.0", message = "Annual rate should be at most 100")
+            double annualRate,
+            @RequestParam
+            @Min(value = 1, message = "Tenor should be at least one month")
+            @Max(value = LoansConstants.SCHEDULE_MAX_TENOR_MONTHS, message = "Tenor should be at most " + LoansConstants.SCHEDULE_MAX_TENOR_MONTHS + " months")
+            int tenorMonths,
+            @RequestParam(defaultValue = "REDUCING") AmortizationMethod method) {
+        logger.debug("eazyBank-correlation-id found :{}",correlationId);
+        AmortizationSchedule schedule = iLoansService.fetchSchedule(mobileNumber, method, annualRate, tenorMonths);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                new ScheduleJsonWriter(generator).write(schedule);
+            }
+        };
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(
+            summary = "Fetch Loan Details in Batch REST API",
+            description = "REST API to fetch the loan details of many mobile numbers in one call. " +
+                    "Mobile numbers without a loan are left out of the response"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping(path = "/fetchBatch", consumes = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<List<LoansDto>> fetchLoanDetailsBatch(
+            @RequestHeader("eazybank-correlation-id") String correlationId,
+            @RequestBody
+            @Size(max = LoansConstants.FETCH_BATCH_MAX_SIZE, message = "At most " + LoansConstants.FETCH_BATCH_MAX_SIZE + " mobile numbers per batch")
+            List<@Pattern(regexp="(^$|[0-9]{10})",message = "Mobile number must be 10 digits") String> mobileNumbers) {
+        logger.debug("eazyBank-correlation-id found :{}",correlationId);
+        List<LoansDto> loansDtos = iLoansService.fetchLoans(mobileNumbers);
+        return ResponseEntity.status(HttpStatus.OK).body(loansDtos);
+    }
+
     @Operation(
             summary = "Update Loan Details REST API",
             description = "REST API to update loan details based on a loan number"
@@ -182,6 +271,74 @@ public class LoansController {
         }
     }
 
+    @Operation(
+            summary = "Repay Loan REST API",
+            description = "REST API to apply a repayment to a loan based on a loan number"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "Repayment exceeds the outstanding amount of the loan",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping("/repay")
+    public ResponseEntity<LoansDto> repayLoan(@RequestParam
+                                              @Pattern(regexp="(^$|[0-9]{12})",message = "LoanNumber must be 12 digits")
+                                              String loanNumber,
+                                              @RequestParam
+                                              @Positive(message = "Amount should be greater than zero")
+                                              int amount) {
+        LoansDto loansDto = iLoansService.repayLoan(loanNumber, amount);
+        return ResponseEntity.status(HttpStatus.OK).body(loansDto);
+    }
+
+    @Operation(
+            summary = "Process Repayment File REST API",
+            description = "REST API to apply an end of day repayment file of the repayment directory. " +
+                    "A run that stopped halfway is resumed from its last checkpoint by calling it again"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Repayment file not found",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping("/repaymentBatch")
+    public ResponseEntity<RepaymentBatchDto> processRepaymentFile(@RequestParam
+                                                                  @Pattern(regexp="[A-Za-z0-9._-]+",message = "File name must not contain a path")
+                                                                  String fileName) {
+        RepaymentBatchDto repaymentBatchDto = iLoansService.processRepaymentFile(fileName);
+        return ResponseEntity.status(HttpStatus.OK).body(repaymentBatchDto);
+    }
+
     @Operation(
             summary = "Get Build information",
             description = "Get Build information that is deployed into cards microservice"
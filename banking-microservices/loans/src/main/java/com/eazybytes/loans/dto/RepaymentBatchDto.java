@@ -0,0 +1,47 @@
+package com.eazybytes.loans.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Schema(name = "RepaymentBatch",
+        description = "Schema to hold the outcome of a repayment file run"
+)
+@Data
+public class RepaymentBatchDto {
+
+    @Schema(
+            description = "Name of the repayment file", example = "repayments-2025-07-01.csv"
+    )
+    private String fileName;
+
+    @Schema(
+            description = "RUNNING until the whole file was applied, then COMPLETED", example = "COMPLETED"
+    )
+    private String status;
+
+    @Schema(
+            description = "Lines of the file applied so far, over every run", example = "250000"
+    )
+    private long linesRead;
+
+    @Schema(
+            description = "Repayment records applied to their loan, over every run", example = "249990"
+    )
+    private long recordsApplied;
+
+    @Schema(
+            description = "Malformed records, and records of unknown loans or above the outstanding amount", example = "10"
+    )
+    private long recordsRejected;
+
+    @Schema(
+            description = "Duration of this run in milliseconds", example = "5400"
+    )
+    private long elapsedMillis;
+
+    @Schema(
+            description = "Records processed per second by this run", example = "46296"
+    )
+    private long recordsPerSecond;
+
+}
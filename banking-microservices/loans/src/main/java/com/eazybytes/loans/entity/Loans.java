@@ -22,5 +22,9 @@ public class Loans extends BaseEntity {
 	private int amountPaid;
 
 	private int outstandingAmount;
-	
+
+	// guards updateLoan against overwriting the amounts changed meanwhile by a repayment
+	@Version
+	private long version;
+
 }
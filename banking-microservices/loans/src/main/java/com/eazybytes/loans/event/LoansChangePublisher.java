@@ -0,0 +1,38 @@
+package com.eazybytes.loans.event;
+
+import com.eazybytes.loans.dto.LoansChangeMsgDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Publishes the loan changes to the {@value #BINDING_NAME} binding once they are committed, or right away when
+ * the change was not made in a transaction. A change lost on the way is repaired by the consumers, whose
+ * read models fall back to the REST API for entries that have not been refreshed for too long.
+ */
+@Component
+public class LoansChangePublisher {
+
+    public static final String BINDING_NAME = "loansChanged-out-0";
+
+    private static final Logger log = LoggerFactory.getLogger(LoansChangePublisher.class);
+
+    private final StreamBridge streamBridge;
+
+    public LoansChangePublisher(StreamBridge streamBridge) {
+        this.streamBridge = streamBridge;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(LoansChangeMsgDto change) {
+        try {
+            if (!streamBridge.send(BINDING_NAME, change)) {
+                log.warn("Loan change of mobile number {} could not be published", change.mobileNumber());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Loan change of mobile number {} could not be published : {}", change.mobileNumber(), ex.toString());
+        }
+    }
+}
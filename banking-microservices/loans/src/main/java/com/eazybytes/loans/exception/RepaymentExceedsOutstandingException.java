@@ -0,0 +1,13 @@
+package com.eazybytes.loans.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)
+public class RepaymentExceedsOutstandingException extends RuntimeException {
+
+    public RepaymentExceedsOutstandingException(String message){
+        super(message);
+    }
+
+}
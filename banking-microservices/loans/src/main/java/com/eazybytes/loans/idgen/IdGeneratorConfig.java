@@ -0,0 +1,21 @@
+package com.eazybytes.loans.idgen;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    /**
+     * Loan numbers keep their 12 digit format, so the highest stored string is also the highest number.
+     */
+    @Bean
+    public IdGenerator loanNumberGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                           @Value("${id-generator.block-size:100}") int blockSize) {
+        return new BlockSequenceGenerator(new JdbcBlockAllocator(jdbcTemplate, transactionManager,
+                "loan_number", 100000000000L, 999999999999L, "SELECT MAX(loan_number) FROM loans"), blockSize);
+    }
+}
@@ -20,8 +20,8 @@ public class LoansMapper {
         loans.setLoanType(loansDto.getLoanType());
         loans.setMobileNumber(loansDto.getMobileNumber());
         loans.setTotalLoan(loansDto.getTotalLoan());
-        loans.setAmountPaid(loansDto.getAmountPaid());
-        loans.setOutstandingAmount(loansDto.getOutstandingAmount());
+        // the amount paid and the outstanding amount only change through repayments, a DTO read before a
+        // repayment would otherwise write back its stale amounts
         return loans;
     }
 
@@ -0,0 +1,14 @@
+package com.eazybytes.loans.repayment;
+
+/**
+ * Progress of a repayment file, committed together with every chunk it applied.
+ *
+ * @param fileName - name of the repayment file
+ * @param status - RUNNING until the last line was applied, then COMPLETED
+ * @param linesRead - lines of the file already applied, a restart resumes after them
+ * @param recordsApplied - repayment records applied to their loan
+ * @param recordsRejected - malformed records, and records of unknown loans or above the outstanding amount
+ */
+public record RepaymentBatchCheckpoint(String fileName, String status, long linesRead, long recordsApplied,
+                                       long recordsRejected) {
+}
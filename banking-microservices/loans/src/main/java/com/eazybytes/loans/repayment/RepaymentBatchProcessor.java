@@ -0,0 +1,259 @@
+package com.eazybytes.loans.repayment;
+
+import com.eazybytes.loans.config.RepaymentBatchProperties;
+import com.eazybytes.loans.constants.LoansConstants;
+import com.eazybytes.loans.dto.LoansChangeMsgDto;
+import com.eazybytes.loans.dto.LoansDto;
+import com.eazybytes.loans.dto.RepaymentBatchDto;
+import com.eazybytes.loans.entity.Loans;
+import com.eazybytes.loans.exception.ResourceNotFoundException;
+import com.eazybytes.loans.mapper.LoansMapper;
+import com.eazybytes.loans.repository.LoansRepository;
+import com.eazybytes.loans.repository.RepaymentBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Applies an end of day repayment file, one {@code loanNumber,amount} record per line after an optional
+ * header. The file is streamed and applied in chunks of {@link RepaymentBatchProperties#chunkSize()} records,
+ * so memory does not grow with the file. The records of a chunk are summed per loan and applied with one
+ * JDBC batch, in the same transaction as the checkpoint of the file: a run that stops halfway is resumed
+ * by processing the same file again, after the last committed chunk, without applying any line twice.
+ * Rejected records are kept in the {@code repayment_rejection} table, by file and line.
+ */
+@Component
+public class RepaymentBatchProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(RepaymentBatchProcessor.class);
+    private static final String HEADER = "loanNumber";
+
+    private final RepaymentBatchRepository repaymentBatchRepository;
+    private final LoansRepository loansRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RepaymentBatchProperties repaymentBatchProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    public RepaymentBatchProcessor(RepaymentBatchRepository repaymentBatchRepository, LoansRepository loansRepository,
+                                   ApplicationEventPublisher eventPublisher,
+                                   RepaymentBatchProperties repaymentBatchProperties,
+                                   PlatformTransactionManager transactionManager) {
+        this.repaymentBatchRepository = repaymentBatchRepository;
+        this.loansRepository = loansRepository;
+        this.eventPublisher = eventPublisher;
+        this.repaymentBatchProperties = repaymentBatchProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @param fileName - name of a repayment file of the repayment directory
+     * @return the progress of the file, a completed file is not applied again
+     */
+    public RepaymentBatchDto process(String fileName) {
+        Path file = resolve(fileName);
+        RepaymentBatchCheckpoint checkpoint = repaymentBatchRepository.findOrCreate(fileName);
+        long startedAt = System.nanoTime();
+        long records = 0;
+        if (LoansConstants.REPAYMENT_BATCH_RUNNING.equals(checkpoint.status())) {
+            log.info("Processing repayment file {} from line {}", fileName, checkpoint.linesRead() + 1);
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                for (long line = 0; line < checkpoint.linesRead(); line++) {
+                    reader.readLine();
+                }
+                Chunk chunk = new Chunk(checkpoint.linesRead());
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    chunk.add(line);
+                    if (chunk.records == repaymentBatchProperties.chunkSize()) {
+                        records += chunk.records;
+                        commit(fileName, chunk, false);
+                        chunk = new Chunk(chunk.toLine);
+                    }
+                }
+                records += chunk.records;
+                commit(fileName, chunk, true);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Repayment file " + fileName + " could not be read", ex);
+            }
+            checkpoint = repaymentBatchRepository.find(fileName);
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        RepaymentBatchDto repaymentBatchDto = toDto(checkpoint, elapsedNanos, records);
+        log.info("Repayment file {} {} : {} records in {} ms, {} records per second, {} applied and {} rejected overall",
+                fileName, checkpoint.status(), records, repaymentBatchDto.getElapsedMillis(),
+                repaymentBatchDto.getRecordsPerSecond(), checkpoint.recordsApplied(), checkpoint.recordsRejected());
+        return repaymentBatchDto;
+    }
+
+    private Path resolve(String fileName) {
+        Path directory = repaymentBatchProperties.directory().toAbsolutePath().normalize();
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.getParent().equals(directory) || !Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("Repayment file", "fileName", fileName);
+        }
+        return file;
+    }
+
+    /**
+     * Applies a chunk and moves the checkpoint after it, in one transaction. The loans are updated in loan
+     * number order, so two transactions repaying the same loans cannot deadlock. The total of a loan that
+     * owes less than it is applied again record by record, in file order, so the records it can still take
+     * are applied whatever the chunk size. Rejected records are stored in the same transaction.
+     */
+    private void commit(String fileName, Chunk chunk, boolean completed) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!repaymentBatchRepository.advance(fileName, chunk.fromLine, chunk.toLine, completed)) {
+                throw new IllegalStateException("Repayment file " + fileName + " is being processed by another run");
+            }
+            List<String> loanNumbers = new ArrayList<>(chunk.repayments.keySet());
+            List<Long> amounts = new ArrayList<>(loanNumbers.size());
+            for (LoanRepayments repayments : chunk.repayments.values()) {
+                amounts.add(repayments.total);
+            }
+            boolean[] repaid = loanNumbers.isEmpty() ? new boolean[0]
+                    : repaymentBatchRepository.applyRepayments(loanNumbers, amounts);
+            long applied = 0;
+            List<RepaymentRejection> rejections = chunk.rejections;
+            List<String> repaidLoanNumbers = new ArrayList<>(loanNumbers.size());
+            for (int i = 0; i < repaid.length; i++) {
+                String loanNumber = loanNumbers.get(i);
+                LoanRepayments repayments = chunk.repayments.get(loanNumber);
+                int accepted = repaid[i] ? repayments.size
+                        : applyOneByOne(loanNumber, repayments, rejections);
+                if (accepted > 0) {
+                    applied += accepted;
+                    repaidLoanNumbers.add(loanNumber);
+                }
+            }
+            repaymentBatchRepository.saveRejections(fileName, rejections);
+            repaymentBatchRepository.addCounts(fileName, applied, rejections.size());
+            publishChanges(repaidLoanNumbers);
+        });
+        if (!chunk.rejections.isEmpty()) {
+            log.warn("Repayment file {} rejected {} records up to line {}", fileName, chunk.rejections.size(),
+                    chunk.toLine);
+        }
+        log.debug("Repayment file {} applied up to line {}", fileName, chunk.toLine);
+    }
+
+    /**
+     * @return number of records applied, the others are added to the rejections
+     */
+    private int applyOneByOne(String loanNumber, LoanRepayments repayments, List<RepaymentRejection> rejections) {
+        String reason = repaymentBatchRepository.loanExists(loanNumber)
+                ? RepaymentRejection.EXCEEDS_OUTSTANDING : RepaymentRejection.UNKNOWN_LOAN;
+        int accepted = 0;
+        for (int i = 0; i < repayments.size; i++) {
+            if (reason.equals(RepaymentRejection.EXCEEDS_OUTSTANDING)
+                    && repaymentBatchRepository.applyRepayment(loanNumber, repayments.amounts[i])) {
+                accepted++;
+            } else {
+                rejections.add(new RepaymentRejection(repayments.lines[i], loanNumber + "," + repayments.amounts[i],
+                        reason));
+            }
+        }
+        return accepted;
+    }
+
+    private void publishChanges(List<String> loanNumbers) {
+        if (loanNumbers.isEmpty()) {
+            return;
+        }
+        for (Loans loans : loansRepository.findByLoanNumberIn(loanNumbers)) {
+            eventPublisher.publishEvent(new LoansChangeMsgDto(loans.getMobileNumber(),
+                    LoansMapper.mapToLoansDto(loans, new LoansDto()), Instant.now()));
+        }
+    }
+
+    private static RepaymentBatchDto toDto(RepaymentBatchCheckpoint checkpoint, long elapsedNanos, long records) {
+        RepaymentBatchDto repaymentBatchDto = new RepaymentBatchDto();
+        repaymentBatchDto.setFileName(checkpoint.fileName());
+        repaymentBatchDto.setStatus(checkpoint.status());
+        repaymentBatchDto.setLinesRead(checkpoint.linesRead());
+        repaymentBatchDto.setRecordsApplied(checkpoint.recordsApplied());
+        repaymentBatchDto.setRecordsRejected(checkpoint.recordsRejected());
+        repaymentBatchDto.setElapsedMillis(elapsedNanos / 1_000_000);
+        repaymentBatchDto.setRecordsPerSecond(elapsedNanos == 0 ? 0 : records * 1_000_000_000L / elapsedNanos);
+        return repaymentBatchDto;
+    }
+
+    /**
+     * Lines of the file read since the last checkpoint, grouped per loan.
+     */
+    private static final class Chunk {
+
+        private final long fromLine;
+        private long toLine;
+        private int records;
+        // sorted to lock the loans in a stable order
+        private final Map<String, LoanRepayments> repayments = new TreeMap<>();
+        private final List<RepaymentRejection> rejections = new ArrayList<>();
+
+        private Chunk(long fromLine) {
+            this.fromLine = fromLine;
+            this.toLine = fromLine;
+        }
+
+        private void add(String line) {
+            toLine++;
+            if (line.isBlank() || (toLine == 1 && line.startsWith(HEADER))) {
+                return;
+            }
+            records++;
+            int comma = line.indexOf(',');
+            String loanNumber = comma < 0 ? "" : line.substring(0, comma).trim();
+            int amount = comma < 0 ? 0 : parseAmount(line.substring(comma + 1).trim());
+            if (loanNumber.isEmpty() || amount <= 0) {
+                rejections.add(new RepaymentRejection(toLine, line, RepaymentRejection.MALFORMED));
+                return;
+            }
+            repayments.computeIfAbsent(loanNumber, key -> new LoanRepayments()).add(toLine, amount);
+        }
+
+        private static int parseAmount(String amount) {
+            try {
+                return Integer.parseInt(amount);
+            } catch (NumberFormatException ex) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Records of one loan in a chunk, in file order, with their total.
+     */
+    private static final class LoanRepayments {
+
+        private long total;
+        private int size;
+        private long[] lines = new long[4];
+        private int[] amounts = new int[4];
+
+        private void add(long line, int amount) {
+            if (size == lines.length) {
+                lines = Arrays.copyOf(lines, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+            }
+            lines[size] = line;
+            amounts[size] = amount;
+            size++;
+            total += amount;
+        }
+    }
+}
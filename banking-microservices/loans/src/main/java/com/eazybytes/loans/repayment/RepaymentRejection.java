@@ -0,0 +1,16 @@
+package com.eazybytes.loans.repayment;
+
+/**
+ * Record of a repayment file that was not applied.
+ *
+ * @param lineNumber - line of the record in the file
+ * @param record - the record, as read or as parsed
+ * @param reason - why it was rejected
+ */
+public record RepaymentRejection(long lineNumber, String record, String reason) {
+
+    public static final String MALFORMED = "MALFORMED";
+    public static final String UNKNOWN_LOAN = "UNKNOWN_LOAN";
+    public static final String EXCEEDS_OUTSTANDING = "EXCEEDS_OUTSTANDING";
+
+}
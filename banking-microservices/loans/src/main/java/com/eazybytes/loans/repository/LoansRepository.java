@@ -2,8 +2,13 @@ package com.eazybytes.loans.repository;
 
 import com.eazybytes.loans.entity.Loans;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,6 +16,22 @@ public interface LoansRepository extends JpaRepository<Loans, Long> {
 
     Optional<Loans> findByMobileNumber(String mobileNumber);
 
+    List<Loans> findByMobileNumberIn(Collection<String> mobileNumbers);
+
     Optional<Loans> findByLoanNumber(String loanNumber);
 
+    List<Loans> findByLoanNumberIn(Collection<String> loanNumbers);
+
+    /**
+     * Applies a repayment in one statement. The outstanding amount is checked by the row update itself, so
+     * concurrent repayments can never take a loan below zero.
+     *
+     * @return 1 when the repayment was applied, 0 when the loan does not exist or owes less than the amount
+     */
+    @Modifying
+    @Query("update Loans l set l.amountPaid = l.amountPaid + :amount, "
+            + "l.outstandingAmount = l.outstandingAmount - :amount, l.version = l.version + 1 "
+            + "where l.loanNumber = :loanNumber and l.outstandingAmount >= :amount")
+    int applyRepayment(@Param("loanNumber") String loanNumber, @Param("amount") int amount);
+
 }
@@ -0,0 +1,151 @@
+package com.eazybytes.loans.repository;
+
+import com.eazybytes.loans.constants.LoansConstants;
+import com.eazybytes.loans.repayment.RepaymentBatchCheckpoint;
+import com.eazybytes.loans.repayment.RepaymentRejection;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checkpoints of the repayment files and the batched repayment updates applied under them.
+ */
+@Repository
+@AllArgsConstructor
+public class RepaymentBatchRepository {
+
+    private static final String CREATE = "INSERT INTO repayment_batch (file_name, status, lines_read, records_applied, "
+            + "records_rejected, started_at, updated_at) VALUES (?, ?, 0, 0, 0, ?, ?)";
+    private static final String SELECT = "SELECT file_name, status, lines_read, records_applied, records_rejected "
+            + "FROM repayment_batch WHERE file_name = ?";
+    private static final String ADVANCE = "UPDATE repayment_batch SET lines_read = ?, status = ?, updated_at = ? "
+            + "WHERE file_name = ? AND lines_read = ? AND status = ?";
+    private static final String COUNT = "UPDATE repayment_batch SET records_applied = records_applied + ?, "
+            + "records_rejected = records_rejected + ? WHERE file_name = ?";
+    private static final String REPAY = "UPDATE loans SET amount_paid = amount_paid + ?, "
+            + "outstanding_amount = outstanding_amount - ?, version = version + 1 "
+            + "WHERE loan_number = ? AND outstanding_amount >= ?";
+    private static final String LOAN_EXISTS = "SELECT COUNT(*) FROM loans WHERE loan_number = ?";
+    private static final String REJECT = "INSERT INTO repayment_rejection (file_name, line_number, record, reason, "
+            + "created_at) VALUES (?, ?, ?, ?, ?)";
+    // longer malformed lines are cut to the column size
+    private static final int RECORD_MAX_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param fileName - name of the repayment file
+     * @return the checkpoint of the file, created empty on its first run
+     */
+    public RepaymentBatchCheckpoint findOrCreate(String fileName) {
+        Timestamp now = Timestamp.from(Instant.now());
+        try {
+            jdbcTemplate.update(CREATE, fileName, LoansConstants.REPAYMENT_BATCH_RUNNING, now, now);
+        } catch (DuplicateKeyException ex) {
+            // a previous run of the same file, it is resumed from its checkpoint
+        }
+        return find(fileName);
+    }
+
+    /**
+     * @param fileName - name of the repayment file
+     * @return the checkpoint of the file
+     */
+    public RepaymentBatchCheckpoint find(String fileName) {
+        return jdbcTemplate.queryForObject(SELECT, (rs, rowNum) -> new RepaymentBatchCheckpoint(
+                rs.getString("file_name"), rs.getString("status"), rs.getLong("lines_read"),
+                rs.getLong("records_applied"), rs.getLong("records_rejected")), fileName);
+    }
+
+    /**
+     * Moves the checkpoint from the lines the caller started after to the lines it has now read. The row
+     * stays locked until the chunk commits, so a second run of the same file waits, then finds the checkpoint
+     * moved and gives up instead of applying the same lines twice.
+     *
+     * @param fileName - name of the repayment file
+     * @param fromLine - lines read when the chunk started
+     * @param toLine - lines read at the end of the chunk
+     * @param completed - whether the chunk ends the file
+     * @return false when the checkpoint was moved meanwhile by another run
+     */
+    public boolean advance(String fileName, long fromLine, long toLine, boolean completed) {
+        return jdbcTemplate.update(ADVANCE, toLine,
+                completed ? LoansConstants.REPAYMENT_BATCH_COMPLETED : LoansConstants.REPAYMENT_BATCH_RUNNING,
+                Timestamp.from(Instant.now()), fileName, fromLine, LoansConstants.REPAYMENT_BATCH_RUNNING) == 1;
+    }
+
+    /**
+     * @param fileName - name of the repayment file
+     * @param applied - records applied by the chunk
+     * @param rejected - records rejected by the chunk
+     */
+    public void addCounts(String fileName, long applied, long rejected) {
+        jdbcTemplate.update(COUNT, applied, rejected, fileName);
+    }
+
+    /**
+     * Applies the total repayment of each loan with one JDBC batch. A loan is only updated if it still owes
+     * at least its total, so the file cannot take a loan below zero.
+     *
+     * @param loanNumbers - loans to repay, in the order their row locks are taken
+     * @param amounts - total repayment of each loan
+     * @return for each loan, whether it was repaid
+     */
+    public boolean[] applyRepayments(List<String> loanNumbers, List<Long> amounts) {
+        List<Object[]> args = new ArrayList<>(loanNumbers.size());
+        for (int i = 0; i < loanNumbers.size(); i++) {
+            Long amount = amounts.get(i);
+            args.add(new Object[]{amount, amount, loanNumbers.get(i), amount});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(REPAY, args);
+        boolean[] repaid = new boolean[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            // exact counts, the batch is not rewritten into multi-row statements by the driver
+            repaid[i] = counts[i] > 0;
+        }
+        return repaid;
+    }
+
+    /**
+     * @param loanNumber - loan to repay
+     * @param amount - repayment, applied only if the loan still owes at least that much
+     * @return whether the loan was repaid
+     */
+    public boolean applyRepayment(String loanNumber, long amount) {
+        return jdbcTemplate.update(REPAY, amount, amount, loanNumber, amount) > 0;
+    }
+
+    /**
+     * @param loanNumber - Loan Number
+     * @return whether the loan exists
+     */
+    public boolean loanExists(String loanNumber) {
+        Integer count = jdbcTemplate.queryForObject(LOAN_EXISTS, Integer.class, loanNumber);
+        return count != null && count > 0;
+    }
+
+    /**
+     * @param fileName - name of the repayment file
+     * @param rejections - records of the chunk that were not applied
+     */
+    public void saveRejections(String fileName, List<RepaymentRejection> rejections) {
+        if (rejections.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> args = new ArrayList<>(rejections.size());
+        for (RepaymentRejection rejection : rejections) {
+            String record = rejection.record().length() > RECORD_MAX_LENGTH
+                    ? rejection.record().substring(0, RECORD_MAX_LENGTH) : rejection.record();
+            args.add(new Object[]{fileName, rejection.lineNumber(), record, rejection.reason(), now});
+        }
+        jdbcTemplate.batchUpdate(REJECT, args);
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.eazybytes.loans.schedule;
+
+public enum AmortizationMethod {
+
+    /** flat rate, the interest of every month is charged on the initial principal */
+    FIXED,
+
+    /** equated monthly installments, the interest of every month is charged on the remaining balance */
+    REDUCING
+
+}
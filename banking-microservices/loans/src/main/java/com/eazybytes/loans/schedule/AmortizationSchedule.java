@@ -0,0 +1,140 @@
+package com.eazybytes.loans.schedule;
+
+/**
+ * Month by month repayment plan of a principal. Amounts are in cents and kept in one primitive array per
+ * column, so a 30 year monthly schedule is four arrays of 360 longs rather than 360 row objects. Every
+ * installment is rounded to the cent, and the last one absorbs the rounding so the balance ends at zero.
+ * Instances are immutable and shared between requests by the {@link ScheduleCalculator}.
+ */
+public final class AmortizationSchedule {
+
+    private final AmortizationMethod method;
+    private final long principal;
+    private final double annualRate;
+    private final long[] payments;
+    private final long[] principals;
+    private final long[] interests;
+    private final long[] balances;
+    private final long totalInterest;
+
+    private AmortizationSchedule(AmortizationMethod method, long principal, double annualRate, int months) {
+        this.method = method;
+        this.principal = principal;
+        this.annualRate = annualRate;
+        this.payments = new long[months];
+        this.principals = new long[months];
+        this.interests = new long[months];
+        this.balances = new long[months];
+        this.totalInterest = switch (method) {
+            case FIXED -> fillFixed(annualRate / 1200);
+            case REDUCING -> fillReducing(annualRate / 1200);
+        };
+    }
+
+    /**
+     * @param method - how the interest is charged
+     * @param principal - amount borrowed, in cents
+     * @param annualRate - annual interest rate, in percent
+     * @param months - tenor of the loan
+     * @return the schedule of the loan
+     */
+    public static AmortizationSchedule compute(AmortizationMethod method, long principal, double annualRate, int months) {
+        if (principal < 0 || annualRate < 0 || months < 1) {
+            throw new IllegalArgumentException("Invalid schedule of " + principal + " cents at " + annualRate
+                    + "% over " + months + " months");
+        }
+        return new AmortizationSchedule(method, principal, annualRate, months);
+    }
+
+    private long fillFixed(double monthlyRate) {
+        int months = payments.length;
+        long interest = Math.round(principal * monthlyRate * months);
+        long monthlyPrincipal = principal / months;
+        long monthlyInterest = interest / months;
+        long balance = principal;
+        for (int month = 0; month < months; month++) {
+            boolean last = month == months - 1;
+            long principalPart = last ? balance : monthlyPrincipal;
+            long interestPart = last ? interest - monthlyInterest * (months - 1) : monthlyInterest;
+            balance -= principalPart;
+            set(month, principalPart, interestPart, balance);
+        }
+        return interest;
+    }
+
+    private long fillReducing(double monthlyRate) {
+        int months = payments.length;
+        long installment = Math.round(monthlyRate == 0 ? (double) principal / months
+                : principal * monthlyRate / (1 - Math.pow(1 + monthlyRate, -months)));
+        long interest = 0;
+        long balance = principal;
+        for (int month = 0; month < months; month++) {
+            long interestPart = Math.round(balance * monthlyRate);
+            long principalPart = month == months - 1 ? balance : Math.min(installment - interestPart, balance);
+            balance -= principalPart;
+            interest += interestPart;
+            set(month, principalPart, interestPart, balance);
+        }
+        return interest;
+    }
+
+    private void set(int month, long principalPart, long interestPart, long balance) {
+        payments[month] = principalPart + interestPart;
+        principals[month] = principalPart;
+        interests[month] = interestPart;
+        balances[month] = balance;
+    }
+
+    public AmortizationMethod method() {
+        return method;
+    }
+
+    public long principal() {
+        return principal;
+    }
+
+    public double annualRate() {
+        return annualRate;
+    }
+
+    public int months() {
+        return payments.length;
+    }
+
+    public long totalInterest() {
+        return totalInterest;
+    }
+
+    /**
+     * @param month - index of the installment, from 0
+     * @return amount paid that month, in cents
+     */
+    public long payment(int month) {
+        return payments[month];
+    }
+
+    /**
+     * @param month - index of the installment, from 0
+     * @return part of the payment repaying the principal, in cents
+     */
+    public long principal(int month) {
+        return principals[month];
+    }
+
+    /**
+     * @param month - index of the installment, from 0
+     * @return part of the payment paying the interest, in cents
+     */
+    public long interest(int month) {
+        return interests[month];
+    }
+
+    /**
+     * @param month - index of the installment, from 0
+     * @return principal still owed after the payment, in cents
+     */
+    public long balance(int month) {
+        return balances[month];
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.eazybytes.loans.schedule;
+
+import com.eazybytes.loans.entity.Loans;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes the schedules of the loans, memoized per loan version: every change of a loan, including a
+ * repayment, increments its version, so a cached schedule is never served for an outstanding amount that
+ * is no longer current and needs no eviction. A 30 year monthly schedule takes about 12 KB.
+ */
+@Component
+public class ScheduleCalculator {
+
+    private final Cache<ScheduleKey, AmortizationSchedule> schedules;
+
+    public ScheduleCalculator(@Value("${schedule.cache-size:1000}") long cacheSize) {
+        this.schedules = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    /**
+     * @param loans - loan to schedule, its outstanding amount is the principal
+     * @param method - how the interest is charged
+     * @param annualRate - annual interest rate, in percent
+     * @param months - remaining tenor of the loan
+     * @return the schedule of the outstanding amount of the loan
+     */
+    public AmortizationSchedule schedule(Loans loans, AmortizationMethod method, double annualRate, int months) {
+        ScheduleKey key = new ScheduleKey(loans.getLoanNumber(), loans.getVersion(), method, annualRate, months);
+        long principal = loans.getOutstandingAmount() * 100L;
+        return schedules.get(key, k -> AmortizationSchedule.compute(method, principal, annualRate, months));
+    }
+
+    private record ScheduleKey(String loanNumber, long version, AmortizationMethod method, double annualRate,
+                               int months) {
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.eazybytes.loans.schedule;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * Streams a schedule as JSON, one installment at a time, without building a response object per row.
+ * Amounts are written as decimal numbers formatted from their cents into a reused buffer.
+ */
+public final class ScheduleJsonWriter {
+
+    private final JsonGenerator generator;
+    // long cents need at most 20 digits, a sign and the decimal point
+    private final char[] buffer = new char[24];
+
+    public ScheduleJsonWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * @param schedule - schedule to write
+     */
+    public void write(AmortizationSchedule schedule) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("method", schedule.method().name());
+        generator.writeFieldName("principal");
+        writeAmount(schedule.principal());
+        generator.writeNumberField("annualRate", schedule.annualRate());
+        generator.writeNumberField("tenorMonths", schedule.months());
+        generator.writeFieldName("totalInterest");
+        writeAmount(schedule.totalInterest());
+        generator.writeFieldName("totalPayment");
+        writeAmount(schedule.principal() + schedule.totalInterest());
+        generator.writeArrayFieldStart("installments");
+        for (int month = 0; month < schedule.months(); month++) {
+            generator.writeStartObject();
+            generator.writeNumberField("month", month + 1);
+            generator.writeFieldName("payment");
+            writeAmount(schedule.payment(month));
+            generator.writeFieldName("principal");
+            writeAmount(schedule.principal(month));
+            generator.writeFieldName("interest");
+            writeAmount(schedule.interest(month));
+            generator.writeFieldName("balance");
+            writeAmount(schedule.balance(month));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void writeAmount(long cents) throws IOException {
+        long value = Math.abs(cents);
+        int position = buffer.length;
+        buffer[--position] = (char) ('0' + value % 10);
+        value /= 10;
+        buffer[--position] = (char) ('0' + value % 10);
+        value /= 10;
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        if (cents < 0) {
+            buffer[--position] = '-';
+        }
+        generator.writeNumber(buffer, position, buffer.length - position);
+    }
+
+}
@@ -1,6 +1,11 @@
 package com.eazybytes.loans.service;
 
 import com.eazybytes.loans.dto.LoansDto;
+import com.eazybytes.loans.dto.RepaymentBatchDto;
+import com.eazybytes.loans.schedule.AmortizationMethod;
+import com.eazybytes.loans.schedule.AmortizationSchedule;
+
+import java.util.List;
 
 public interface ILoansService {
 
@@ -17,6 +22,13 @@ public interface ILoansService {
      */
     LoansDto fetchLoan(String mobileNumber);
 
+    /**
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Loan Details of the given mobileNumbers that have one, in input order
+     */
+    List<LoansDto> fetchLoans(List<String> mobileNumbers);
+
     /**
      *
      * @param loansDto - LoansDto Object
@@ -31,4 +43,29 @@ public interface ILoansService {
      */
     boolean deleteLoan(String mobileNumber);
 
+    /**
+     *
+     * @param loanNumber - Loan Number to repay
+     * @param amount - Amount repaid, at most the outstanding amount of the loan
+     * @return Loan Details after the repayment
+     */
+    LoansDto repayLoan(String loanNumber, int amount);
+
+    /**
+     *
+     * @param fileName - Name of a repayment file of the repayment directory
+     * @return the progress of the file, resumed from its last checkpoint when a previous run stopped halfway
+     */
+    RepaymentBatchDto processRepaymentFile(String fileName);
+
+    /**
+     *
+     * @param mobileNumber - Input mobile Number
+     * @param method - How the interest is charged
+     * @param annualRate - Annual interest rate, in percent
+     * @param tenorMonths - Remaining tenor of the loan, in months
+     * @return Amortization schedule of the outstanding amount of the loan
+     */
+    AmortizationSchedule fetchSchedule(String mobileNumber, AmortizationMethod method, double annualRate, int tenorMonths);
+
 }
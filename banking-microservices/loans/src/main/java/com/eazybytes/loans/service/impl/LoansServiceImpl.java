@@ -1,24 +1,44 @@
 package com.eazybytes.loans.service.impl;
 
 import com.eazybytes.loans.constants.LoansConstants;
+import com.eazybytes.loans.dto.LoansChangeMsgDto;
 import com.eazybytes.loans.dto.LoansDto;
+import com.eazybytes.loans.dto.RepaymentBatchDto;
 import com.eazybytes.loans.entity.Loans;
 import com.eazybytes.loans.exception.LoanAlreadyExistsException;
+import com.eazybytes.loans.exception.RepaymentExceedsOutstandingException;
 import com.eazybytes.loans.exception.ResourceNotFoundException;
+import com.eazybytes.loans.idgen.IdGenerator;
 import com.eazybytes.loans.mapper.LoansMapper;
+import com.eazybytes.loans.repayment.RepaymentBatchProcessor;
 import com.eazybytes.loans.repository.LoansRepository;
+import com.eazybytes.loans.schedule.AmortizationMethod;
+import com.eazybytes.loans.schedule.AmortizationSchedule;
+import com.eazybytes.loans.schedule.ScheduleCalculator;
 import com.eazybytes.loans.service.ILoansService;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
 
 @Service
 @AllArgsConstructor
 public class LoansServiceImpl implements ILoansService {
 
     private LoansRepository loansRepository;
+    private IdGenerator loanNumberGenerator;
+    private ApplicationEventPublisher eventPublisher;
+    private RepaymentBatchProcessor repaymentBatchProcessor;
+    private ScheduleCalculator scheduleCalculator;
 
     /**
      * @param mobileNumber - Mobile Number of the Customer
@@ -29,7 +49,13 @@ public class LoansServiceImpl implements ILoansService {
         if(optionalLoans.isPresent()){
             throw new LoanAlreadyExistsException("Loan already registered with given mobileNumber "+mobileNumber);
         }
-        loansRepository.save(createNewLoan(mobileNumber));
+        try {
+            Loans loans = loansRepository.save(createNewLoan(mobileNumber));
+            publishChange(mobileNumber, loans);
+        } catch (DataIntegrityViolationException ex) {
+            // a concurrent request inserted the same mobile number between the check and the insert
+            throw new LoanAlreadyExistsException("Loan already registered with given mobileNumber "+mobileNumber);
+        }
     }
 
     /**
@@ -38,8 +64,7 @@ public class LoansServiceImpl implements ILoansService {
      */
     private Loans createNewLoan(String mobileNumber) {
         Loans newLoan = new Loans();
-        long randomLoanNumber = 100000000000L + new Random().nextInt(900000000);
-        newLoan.setLoanNumber(Long.toString(randomLoanNumber));
+        newLoan.setLoanNumber(Long.toString(loanNumberGenerator.nextId()));
         newLoan.setMobileNumber(mobileNumber);
         newLoan.setLoanType(LoansConstants.HOME_LOAN);
         newLoan.setTotalLoan(LoansConstants.NEW_LOAN_LIMIT);
@@ -62,6 +87,37 @@ public class LoansServiceImpl implements ILoansService {
     }
 
     /**
+     * Distinct mobile numbers are looked up in chunks of {@link LoansConstants#FETCH_BATCH_CHUNK_SIZE},
+     * with one {@code IN} query per chunk instead of one query per mobile number.
+     *
+     * @param mobileNumbers - Input mobile Numbers
+     * @return Loan Details of the given mobileNumbers that have one, in input order
+     */
+    @Override
+    public List<LoansDto> fetchLoans(List<String> mobileNumbers) {
+        List<String> distinctMobileNumbers = new ArrayList<>(new LinkedHashSet<>(mobileNumbers));
+        Map<String, Loans> loansByMobileNumber = new HashMap<>();
+        for (int from = 0; from < distinctMobileNumbers.size(); from += LoansConstants.FETCH_BATCH_CHUNK_SIZE) {
+            List<String> chunk = distinctMobileNumbers.subList(from,
+                    Math.min(from + LoansConstants.FETCH_BATCH_CHUNK_SIZE, distinctMobileNumbers.size()));
+            for (Loans loans : loansRepository.findByMobileNumberIn(chunk)) {
+                loansByMobileNumber.put(loans.getMobileNumber(), loans);
+            }
+        }
+        List<LoansDto> loansDtos = new ArrayList<>(loansByMobileNumber.size());
+        for (String mobileNumber : distinctMobileNumbers) {
+            Loans loans = loansByMobileNumber.get(mobileNumber);
+            if (loans != null) {
+                loansDtos.add(LoansMapper.mapToLoansDto(loans, new LoansDto()));
+            }
+        }
+        return loansDtos;
+    }
+
+    /**
+     * The amount paid and the outstanding amount of the DTO are ignored, they only change through repayments.
+     * A new total loan moves the outstanding amount by the same difference, and is refused when it is below
+     * what was already repaid.
      *
      * @param loansDto - LoansDto Object
      * @return boolean indicating if the update of loan details is successful or not
@@ -70,8 +126,18 @@ public class LoansServiceImpl implements ILoansService {
     public boolean updateLoan(LoansDto loansDto) {
         Loans loans = loansRepository.findByLoanNumber(loansDto.getLoanNumber()).orElseThrow(
                 () -> new ResourceNotFoundException("Loan", "LoanNumber", loansDto.getLoanNumber()));
+        int outstandingAmount = loans.getOutstandingAmount() + loansDto.getTotalLoan() - loans.getTotalLoan();
+        if (outstandingAmount < 0) {
+            return false;
+        }
+        String previousMobileNumber = loans.getMobileNumber();
         LoansMapper.mapToLoans(loansDto, loans);
+        loans.setOutstandingAmount(outstandingAmount);
         loansRepository.save(loans);
+        if (!previousMobileNumber.equals(loans.getMobileNumber())) {
+            publishChange(previousMobileNumber, null);
+        }
+        publishChange(loans.getMobileNumber(), loans);
         return  true;
     }
 
@@ -85,8 +151,65 @@ public class LoansServiceImpl implements ILoansService {
                 () -> new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber)
         );
         loansRepository.deleteById(loans.getLoanId());
+        publishChange(mobileNumber, null);
         return true;
     }
 
+    /**
+     * The amount is checked against the outstanding amount and applied by a single conditional update, so
+     * concurrent repayments and repayment files can never overpay the loan.
+     *
+     * @param loanNumber - Loan Number to repay
+     * @param amount - Amount repaid, at most the outstanding amount of the loan
+     * @return Loan Details after the repayment
+     */
+    @Override
+    @Transactional
+    public LoansDto repayLoan(String loanNumber, int amount) {
+        int updated = loansRepository.applyRepayment(loanNumber, amount);
+        Loans loans = loansRepository.findByLoanNumber(loanNumber).orElseThrow(
+                () -> new ResourceNotFoundException("Loan", "LoanNumber", loanNumber));
+        if (updated == 0) {
+            throw new RepaymentExceedsOutstandingException("Repayment of " + amount + " exceeds the outstanding amount "
+                    + loans.getOutstandingAmount() + " of loan " + loanNumber);
+        }
+        publishChange(loans.getMobileNumber(), loans);
+        return LoansMapper.mapToLoansDto(loans, new LoansDto());
+    }
+
+    /**
+     * @param fileName - Name of a repayment file of the repayment directory
+     * @return the progress of the file, resumed from its last checkpoint when a previous run stopped halfway
+     */
+    @Override
+    public RepaymentBatchDto processRepaymentFile(String fileName) {
+        return repaymentBatchProcessor.process(fileName);
+    }
+
+    /**
+     * @param mobileNumber - Input mobile Number
+     * @param method - How the interest is charged
+     * @param annualRate - Annual interest rate, in percent
+     * @param tenorMonths - Remaining tenor of the loan, in months
+     * @return Amortization schedule of the outstanding amount of the loan, memoized per loan version
+     */
+    @Override
+    public AmortizationSchedule fetchSchedule(String mobileNumber, AmortizationMethod method, double annualRate,
+                                              int tenorMonths) {
+        Loans loans = loansRepository.findByMobileNumber(mobileNumber).orElseThrow(
+                () -> new ResourceNotFoundException("Loan", "mobileNumber", mobileNumber)
+        );
+        return scheduleCalculator.schedule(loans, method, annualRate, tenorMonths);
+    }
+
+    /**
+     * @param mobileNumber - Mobile Number whose loan changed
+     * @param loans - loan after the change, null when it was deleted
+     */
+    private void publishChange(String mobileNumber, Loans loans) {
+        eventPublisher.publishEvent(new LoansChangeMsgDto(mobileNumber,
+                loans == null ? null : LoansMapper.mapToLoansDto(loans, new LoansDto()), Instant.now()));
+    }
+
 
 }
@@ -10,5 +10,34 @@ CREATE TABLE IF NOT EXISTS `loans` (
     `created_by` varchar(20) NOT NULL,
     `updated_at` date DEFAULT NULL,
     `updated_by` varchar(20) DEFAULT NULL,
-    PRIMARY KEY (`loan_id`)
-    );
\ No newline at end of file
+    `version` bigint NOT NULL DEFAULT 0,
+    PRIMARY KEY (`loan_id`),
+    UNIQUE KEY `uk_loans_mobile_number` (`mobile_number`),
+    UNIQUE KEY `uk_loans_loan_number` (`loan_number`)
+    );
+
+CREATE TABLE IF NOT EXISTS `id_block` (
+    `name` varchar(50) NOT NULL,
+    `next_value` bigint NOT NULL,
+    PRIMARY KEY (`name`)
+    );
+
+CREATE TABLE IF NOT EXISTS `repayment_batch` (
+    `file_name` varchar(255) NOT NULL,
+    `status` varchar(20) NOT NULL,
+    `lines_read` bigint NOT NULL,
+    `records_applied` bigint NOT NULL,
+    `records_rejected` bigint NOT NULL,
+    `started_at` datetime NOT NULL,
+    `updated_at` datetime NOT NULL,
+    PRIMARY KEY (`file_name`)
+    );
+
+CREATE TABLE IF NOT EXISTS `repayment_rejection` (
+    `file_name` varchar(255) NOT NULL,
+    `line_number` bigint NOT NULL,
+    `record` varchar(255) NOT NULL,
+    `reason` varchar(30) NOT NULL,
+    `created_at` datetime NOT NULL,
+    PRIMARY KEY (`file_name`, `line_number`)
+    );
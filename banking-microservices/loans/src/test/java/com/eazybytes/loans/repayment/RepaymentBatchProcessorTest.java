@@ -0,0 +1,167 @@
+package com.eazybytes.loans.repayment;
+
+import com.eazybytes.loans.audit.AuditAwareImpl;
+import com.eazybytes.loans.dto.RepaymentBatchDto;
+import com.eazybytes.loans.entity.Loans;
+import com.eazybytes.loans.repository.LoansRepository;
+import com.eazybytes.loans.repository.RepaymentBatchRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+@DataJpaTest(properties = {"spring.datasource.url=jdbc:h2:mem:loans;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=always", "spring.jpa.hibernate.ddl-auto=none", "repayment-batch.chunk-size=10",
+        "spring.cloud.config.enabled=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RepaymentBatchProcessor.class, RepaymentBatchRepository.class, AuditAwareImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RepaymentBatchProcessorTest {
+
+    private static final Path DIRECTORY = createDirectory();
+
+    @DynamicPropertySource
+    static void repaymentDirectory(DynamicPropertyRegistry registry) {
+        registry.add("repayment-batch.directory", DIRECTORY::toString);
+    }
+
+    @Autowired
+    private RepaymentBatchProcessor repaymentBatchProcessor;
+
+    @MockitoSpyBean
+    private RepaymentBatchRepository repaymentBatchRepository;
+
+    @Autowired
+    private LoansRepository loansRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM repayment_batch");
+        jdbcTemplate.update("DELETE FROM repayment_rejection");
+        loansRepository.deleteAll();
+    }
+
+    @Test
+    void appliesTheRepaymentsOfAFileOnceAndRejectsInvalidRecords() throws IOException {
+        saveLoan("100000000001", 1_000);
+        saveLoan("100000000002", 50);
+        List<String> lines = new ArrayList<>(List.of("loanNumber,amount"));
+        for (int i = 0; i < 25; i++) {
+            lines.add("100000000001,10");
+        }
+        // summed within their chunk, together they exceed the outstanding amount but the first one fits
+        lines.addAll(List.of("100000000002,30", "100000000002,30", "999999999999,10", "100000000001,ten",
+                "100000000001", ""));
+        Files.write(DIRECTORY.resolve("repayments-1.csv"), lines);
+
+        RepaymentBatchDto result = repaymentBatchProcessor.process("repayments-1.csv");
+
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(lines.size(), result.getLinesRead());
+        assertEquals(26, result.getRecordsApplied());
+        assertEquals(4, result.getRecordsRejected());
+        assertEquals(750, outstandingAmount("100000000001"));
+        assertEquals(20, outstandingAmount("100000000002"));
+        assertEquals(List.of("28 EXCEEDS_OUTSTANDING 100000000002,30", "29 UNKNOWN_LOAN 999999999999,10",
+                "30 MALFORMED 100000000001,ten", "31 MALFORMED 100000000001"), rejections("repayments-1.csv"));
+
+        RepaymentBatchDto again = repaymentBatchProcessor.process("repayments-1.csv");
+        assertEquals(26, again.getRecordsApplied());
+        assertEquals(750, outstandingAmount("100000000001"), "a completed file is not applied again");
+    }
+
+    @Test
+    void appliesTheSameRecordsWhateverTheChunkTheyFallIn() throws IOException {
+        saveLoan("100000000001", 100);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            lines.add("100000000001,8");
+        }
+        Files.write(DIRECTORY.resolve("repayments-3.csv"), lines);
+
+        RepaymentBatchDto result = repaymentBatchProcessor.process("repayments-3.csv");
+
+        // the first chunk fits, the second one only up to the outstanding amount
+        assertEquals(12, result.getRecordsApplied());
+        assertEquals(3, result.getRecordsRejected());
+        assertEquals(4, outstandingAmount("100000000001"));
+        assertEquals(List.of("13 EXCEEDS_OUTSTANDING 100000000001,8", "14 EXCEEDS_OUTSTANDING 100000000001,8",
+                "15 EXCEEDS_OUTSTANDING 100000000001,8"), rejections("repayments-3.csv"));
+    }
+
+    @Test
+    void resumesAfterTheLastCommittedChunkWhenARunStops() throws IOException {
+        saveLoan("100000000001", 10_000);
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 45; i++) {
+            lines.add("100000000001," + i);
+        }
+        Files.write(DIRECTORY.resolve("repayments-2.csv"), lines);
+        AtomicInteger chunks = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (chunks.incrementAndGet() == 3) {
+                throw new UncheckedIOException(new IOException("connection lost"));
+            }
+            return invocation.callRealMethod();
+        }).when(repaymentBatchRepository).applyRepayments(any(), any());
+
+        assertThrows(UncheckedIOException.class, () -> repaymentBatchProcessor.process("repayments-2.csv"));
+        assertEquals(10_000 - 210, outstandingAmount("100000000001"), "the first two chunks were committed");
+        assertEquals(20, repaymentBatchRepository.find("repayments-2.csv").linesRead());
+
+        reset(repaymentBatchRepository);
+        RepaymentBatchDto result = repaymentBatchProcessor.process("repayments-2.csv");
+
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(45, result.getRecordsApplied());
+        assertEquals(10_000 - 45 * 46 / 2, outstandingAmount("100000000001"));
+        assertEquals(45 * 46 / 2, loansRepository.findByLoanNumber("100000000001").orElseThrow().getAmountPaid());
+    }
+
+    private void saveLoan(String loanNumber, int outstandingAmount) {
+        loansRepository.save(new Loans(null, loanNumber.substring(2), loanNumber, "Home Loan", outstandingAmount, 0,
+                outstandingAmount, 0));
+    }
+
+    private int outstandingAmount(String loanNumber) {
+        return loansRepository.findByLoanNumber(loanNumber).orElseThrow().getOutstandingAmount();
+    }
+
+    private List<String> rejections(String fileName) {
+        return jdbcTemplate.queryForList("SELECT CONCAT(line_number, ' ', reason, ' ', record) FROM repayment_rejection "
+                + "WHERE file_name = ? ORDER BY line_number", String.class, fileName);
+    }
+
+    private static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("repayments");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.eazybytes.loans.schedule;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computing and streaming 30 year monthly schedules. Run it with the main method, for instance from the IDE,
+ * or with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.eazybytes.loans.schedule.AmortizationScheduleBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AmortizationScheduleBenchmark {
+
+    @Param({"FIXED", "REDUCING"})
+    private AmortizationMethod method;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private AmortizationSchedule schedule;
+
+    @Setup
+    public void setUp() {
+        schedule = AmortizationSchedule.compute(method, 50_000_000, 8.5, 360);
+    }
+
+    @Benchmark
+    public AmortizationSchedule compute() {
+        return AmortizationSchedule.compute(method, 50_000_000, 8.5, 360);
+    }
+
+    @Benchmark
+    public void writeJson() throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(OutputStream.nullOutputStream())) {
+            new ScheduleJsonWriter(generator).write(schedule);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AmortizationScheduleBenchmark.class.getSimpleName()).build()).run();
+    }
+}
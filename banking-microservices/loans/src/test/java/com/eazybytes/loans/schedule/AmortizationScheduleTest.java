@@ -0,0 +1,77 @@
+package com.eazybytes.loans.schedule;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AmortizationScheduleTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void reducingBalancePaysEqualInstallmentsAndEndsAtZero() {
+        AmortizationSchedule schedule = AmortizationSchedule.compute(AmortizationMethod.REDUCING, 10_000_000, 10, 12);
+
+        assertEquals(879_159, schedule.payment(0), "EMI of 100000 at 10% over a year");
+        assertEquals(83_333, schedule.interest(0));
+        assertPaysOffThePrincipal(schedule);
+        for (int month = 1; month < schedule.months() - 1; month++) {
+            assertEquals(schedule.payment(0), schedule.payment(month));
+            assertTrue(schedule.interest(month) < schedule.interest(month - 1));
+        }
+    }
+
+    @Test
+    void fixedRateChargesTheInterestOnTheInitialPrincipal() {
+        AmortizationSchedule schedule = AmortizationSchedule.compute(AmortizationMethod.FIXED, 10_000_000, 10, 24);
+
+        assertEquals(2_000_000, schedule.totalInterest());
+        assertEquals(416_666 + 83_333, schedule.payment(0));
+        assertPaysOffThePrincipal(schedule);
+    }
+
+    @Test
+    void thirtyYearScheduleAbsorbsTheRoundingInTheLastInstallment() {
+        for (AmortizationMethod method : AmortizationMethod.values()) {
+            assertPaysOffThePrincipal(AmortizationSchedule.compute(method, 12_345_678_901L, 7.35, 360));
+            assertPaysOffThePrincipal(AmortizationSchedule.compute(method, 100_000, 0, 3));
+        }
+    }
+
+    @Test
+    void writesTheScheduleAsJsonWithTwoDecimalAmounts() throws Exception {
+        AmortizationSchedule schedule = AmortizationSchedule.compute(AmortizationMethod.REDUCING, 100_005, 0, 3);
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            new ScheduleJsonWriter(generator).write(schedule);
+        }
+
+        JsonNode node = objectMapper.readTree(json.toString());
+        assertEquals("REDUCING", node.get("method").asText());
+        assertEquals(3, node.get("installments").size());
+        assertTrue(json.toString().contains("\"principal\":1000.05,"));
+        assertTrue(json.toString().contains("{\"month\":1,\"payment\":333.35,\"principal\":333.35,\"interest\":0.00,"
+                + "\"balance\":666.70}"));
+        assertTrue(json.toString().contains("\"balance\":0.00}]}"));
+    }
+
+    private static void assertPaysOffThePrincipal(AmortizationSchedule schedule) {
+        long principal = 0;
+        long interest = 0;
+        for (int month = 0; month < schedule.months(); month++) {
+            assertEquals(schedule.principal(month) + schedule.interest(month), schedule.payment(month));
+            assertTrue(schedule.principal(month) >= 0);
+            principal += schedule.principal(month);
+            interest += schedule.interest(month);
+        }
+        assertEquals(schedule.principal(), principal);
+        assertEquals(schedule.totalInterest(), interest);
+        assertEquals(0, schedule.balance(schedule.months() - 1));
+    }
+}
@@ -0,0 +1,70 @@
+package com.eazybytes.loans.service.impl;
+
+import com.eazybytes.loans.audit.AuditAwareImpl;
+import com.eazybytes.loans.dto.LoansDto;
+import com.eazybytes.loans.entity.Loans;
+import com.eazybytes.loans.idgen.IdGenerator;
+import com.eazybytes.loans.repayment.RepaymentBatchProcessor;
+import com.eazybytes.loans.repository.LoansRepository;
+import com.eazybytes.loans.repository.RepaymentBatchRepository;
+import com.eazybytes.loans.schedule.ScheduleCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"spring.datasource.url=jdbc:h2:mem:loans-service;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=always", "spring.jpa.hibernate.ddl-auto=none", "spring.cloud.config.enabled=false"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({LoansServiceImpl.class, RepaymentBatchProcessor.class, RepaymentBatchRepository.class,
+        ScheduleCalculator.class, AuditAwareImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LoansServiceImplTest {
+
+    private static final String LOAN_NUMBER = "100000000001";
+    private static final String MOBILE_NUMBER = "4354437687";
+
+    @MockitoBean
+    private IdGenerator loanNumberGenerator;
+
+    @Autowired
+    private LoansServiceImpl loansService;
+
+    @Autowired
+    private LoansRepository loansRepository;
+
+    @AfterEach
+    void tearDown() {
+        loansRepository.deleteAll();
+    }
+
+    @Test
+    void staleUpdateDoesNotUndoTheRepaymentsAppliedAfterItsFetch() {
+        loansRepository.save(new Loans(null, MOBILE_NUMBER, LOAN_NUMBER, "Home Loan", 1_000, 0, 1_000, 0));
+        LoansDto staleLoansDto = loansService.fetchLoan(MOBILE_NUMBER);
+        loansService.repayLoan(LOAN_NUMBER, 400);
+
+        staleLoansDto.setLoanType("Car Loan");
+        assertTrue(loansService.updateLoan(staleLoansDto));
+
+        Loans loans = loansRepository.findByLoanNumber(LOAN_NUMBER).orElseThrow();
+        assertEquals("Car Loan", loans.getLoanType());
+        assertEquals(400, loans.getAmountPaid());
+        assertEquals(600, loans.getOutstandingAmount(), "the repayment applied after the fetch is kept");
+
+        staleLoansDto.setTotalLoan(1_500);
+        assertTrue(loansService.updateLoan(staleLoansDto));
+        assertEquals(1_100, loansRepository.findByLoanNumber(LOAN_NUMBER).orElseThrow().getOutstandingAmount());
+        staleLoansDto.setTotalLoan(300);
+        assertFalse(loansService.updateLoan(staleLoansDto), "the total cannot drop below the amount repaid");
+    }
+}
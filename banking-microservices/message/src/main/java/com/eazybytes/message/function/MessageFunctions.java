@@ -4,6 +4,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
 
 import java.util.function.Function;
 
@@ -11,6 +13,7 @@ import java.util.function.Function;
 public class MessageFunctions {
 
     private static final Logger log = LoggerFactory.getLogger(MessageFunctions.class);
+    private static final String EVENT_ID_HEADER = "eventId";
 
     @Bean
     public Function<AccountsMsgDto,AccountsMsgDto> email() {
@@ -20,11 +23,21 @@ public class MessageFunctions {
         };
     }
 
+    /**
+     * The event id set by the accounts outbox is carried over to the communication-sent event,
+     * so accounts can recognise a redelivery of the same communication.
+     */
     @Bean
-    public Function<AccountsMsgDto,Long> sms() {
-        return accountsMsgDto -> {
+    public Function<Message<AccountsMsgDto>,Message<Long>> sms() {
+        return message -> {
+            AccountsMsgDto accountsMsgDto = message.getPayload();
             log.info("Sending sms with the details : " +  accountsMsgDto.toString());
-            return accountsMsgDto.accountNumber();
+            MessageBuilder<Long> builder = MessageBuilder.withPayload(accountsMsgDto.accountNumber());
+            Object eventId = message.getHeaders().get(EVENT_ID_HEADER);
+            if (eventId != null) {
+                builder.setHeader(EVENT_ID_HEADER, eventId.toString());
+            }
+            return builder.build();
         };
     }
 